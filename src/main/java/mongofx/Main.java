@@ -34,6 +34,8 @@ import javafx.application.Platform;
 import javafx.stage.Stage;
 import mongofx.service.Executor;
 import mongofx.service.MongoService;
+import mongofx.service.ScriptService;
+import mongofx.service.WorkClass;
 import mongofx.service.settings.SettingsService;
 import mongofx.ui.main.MainFrameController;
 import mongofx.ui.main.UIBuilder;
@@ -53,6 +55,9 @@ public class Main extends Application {
       settings.load();
       mongoService = injector.getInstance(MongoService.class);
       executorService = injector.getInstance(Executor.class);
+      executorService.register();
+      ScriptService scriptService = injector.getInstance(ScriptService.class);
+      executorService.execute(WorkClass.BACKGROUND, scriptService::warmUp);
       UIBuilder builder = injector.getInstance(UIBuilder.class);
       builder.setInjector(injector);
       builder.setStage(primaryStage);
@@ -0,0 +1,68 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+/**
+ * Average BSON size of collection documents, used to choose batch size so page arrives in one round trip
+ */
+public class DocumentSizeStats {
+  // server returns up to 16MB in a batch, keep first batch smaller to show it fast
+  private static final int FIRST_BATCH_BYTE_BUDGET = 4 * 1024 * 1024;
+  // weight of new sample in moving average
+  private static final int SMOOTHING = 32;
+
+  private double average = 0;
+  private boolean observed = false;
+
+  /**
+   * Initial average from collection stats, ignored when real documents already observed
+   */
+  public synchronized void seed(int averageSize) {
+    if (!observed && averageSize > 0) {
+      average = averageSize;
+    }
+  }
+
+  public synchronized void record(int size) {
+    if (!observed) {
+      average = size;
+      observed = true;
+    } else {
+      average += (size - average) / SMOOTHING;
+    }
+  }
+
+  /**
+   * @return average size or -1 if unknown
+   */
+  public synchronized int getAverage() {
+    return average > 0 ? (int) Math.ceil(average) : -1;
+  }
+
+  /**
+   * @return batch size to read page of limit documents in one round trip within byte budget
+   */
+  public int batchSizeFor(int limit) {
+    int averageSize = getAverage();
+    if (averageSize <= 0) {
+      return limit;
+    }
+    return Math.max(1, Math.min(limit, FIRST_BATCH_BYTE_BUDGET / averageSize));
+  }
+}
@@ -0,0 +1,89 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Strings shared by documents of one result set. Documents of same schema reference same key instances instead of own
+ * copies. Short values have own smaller dictionary with eviction, so unique values do not take place of field names.
+ */
+public class FieldNameDictionary {
+  private static final int MAX_NAMES = 16 * 1024;
+  private static final int MAX_VALUES = 1024;
+  // same estimate as DocumentUtils.estimateSize
+  private static final int STRING_OVERHEAD = 40;
+
+  private final Map<String, String> names = new HashMap<>();
+  // least recently used values evicted
+  private final Map<String, String> values = new LinkedHashMap<String, String>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Entry<String, String> eldest) {
+      return size() > MAX_VALUES;
+    }
+  };
+  private long savedBytes = 0;
+
+  /**
+   * Field names are kept until dictionary is full
+   */
+  public synchronized String intern(String name) {
+    String interned = lookup(names, name);
+    if (interned == null && names.size() < MAX_NAMES) {
+      names.put(name, name);
+    }
+    return interned != null ? interned : name;
+  }
+
+  /**
+   * Repeated values, e.g. status or type, stay in dictionary while they are used
+   */
+  public synchronized String internValue(String value) {
+    String interned = lookup(values, value);
+    if (interned == null) {
+      values.put(value, value);
+    }
+    return interned != null ? interned : value;
+  }
+
+  private String lookup(Map<String, String> strings, String value) {
+    String interned = strings.get(value);
+    if (interned != null) {
+      savedBytes += STRING_OVERHEAD + 2L * value.length();
+    }
+    return interned;
+  }
+
+  /**
+   * @return estimated heap not used thanks to shared strings
+   */
+  public synchronized long getSavedBytes() {
+    return savedBytes;
+  }
+
+  /**
+   * @return number of interned field names
+   */
+  public synchronized int size() {
+    return names.size();
+  }
+}
@@ -23,6 +23,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.codecs.Codec;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
 
@@ -42,6 +43,9 @@ public class FindIterable implements Iterable<Document>{
   private final OperationExecutor executor;
   private final FindOptions findOptions;
   private final Bson filter;
+  private boolean lazyDecoding = false;
+  private FieldNameDictionary fieldNames;
+  private DocumentSizeStats sizeStats;
 
   public FindIterable(final MongoNamespace namespace,
       final CodecRegistry codecRegistry,
@@ -55,6 +59,30 @@ public class FindIterable implements Iterable<Document>{
     this.findOptions = notNull("findOptions", findOptions);
   }
 
+  /**
+   * Return documents backed by raw BSON, fields decoded on access
+   */
+  public FindIterable lazyDecoding(boolean lazyDecoding) {
+    this.lazyDecoding = lazyDecoding;
+    return this;
+  }
+
+  /**
+   * Share field names and short strings of decoded documents, ignored for lazy decoding
+   */
+  public FindIterable fieldNames(FieldNameDictionary fieldNames) {
+    this.fieldNames = fieldNames;
+    return this;
+  }
+
+  /**
+   * Record size of read documents
+   */
+  public FindIterable sizeStats(DocumentSizeStats sizeStats) {
+    this.sizeStats = sizeStats;
+    return this;
+  }
+
   @Override
   public MongoCursor<Document> iterator() {
     return new MongoBatchCursorAdapter<>(executor.execute(createQueryOperation(), readPreference));
@@ -65,7 +93,13 @@ public class FindIterable implements Iterable<Document>{
   }
 
   private FindOperation<Document> createQueryOperation() {
-    return new FindOperation<>(namespace, codecRegistry.get(Document.class))
+    Codec<Document> codec = codecRegistry.get(Document.class);
+    if (lazyDecoding) {
+      codec = new LazyDocumentCodec(codec, sizeStats);
+    } else if (fieldNames != null) {
+      codec = new InterningDocumentCodec(codecRegistry, fieldNames, sizeStats);
+    }
+    return new FindOperation<>(namespace, codec)
         .filter(filter.toBsonDocument(Document.class, codecRegistry))
         .batchSize(findOptions.getBatchSize())
         .skip(findOptions.getSkip())
@@ -0,0 +1,130 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Decodes documents same way as DocumentCodec, but field names and short string values are taken from dictionary of
+ * result set
+ */
+public class InterningDocumentCodec implements Codec<Document> {
+  private static final int MAX_INTERNED_VALUE_LENGTH = 32;
+  private static final BsonTypeClassMap BSON_TYPE_CLASS_MAP = new BsonTypeClassMap();
+
+  private final CodecRegistry registry;
+  private final Codec<Document> documentCodec;
+  private final FieldNameDictionary dictionary;
+  private final DocumentSizeStats sizeStats;
+
+  public InterningDocumentCodec(CodecRegistry registry, FieldNameDictionary dictionary) {
+    this(registry, dictionary, null);
+  }
+
+  /**
+   * @param sizeStats receives BSON size of decoded documents, may be null
+   */
+  public InterningDocumentCodec(CodecRegistry registry, FieldNameDictionary dictionary, DocumentSizeStats sizeStats) {
+    this.registry = registry;
+    this.documentCodec = registry.get(Document.class);
+    this.dictionary = dictionary;
+    this.sizeStats = sizeStats;
+  }
+
+  @Override
+  public Document decode(BsonReader reader, DecoderContext decoderContext) {
+    if (sizeStats == null || !(reader instanceof BsonBinaryReader)) {
+      return readDocument(reader, decoderContext);
+    }
+    int start = ((BsonBinaryReader) reader).getBsonInput().getPosition();
+    Document document = readDocument(reader, decoderContext);
+    sizeStats.record(((BsonBinaryReader) reader).getBsonInput().getPosition() - start);
+    return document;
+  }
+
+  private Document readDocument(BsonReader reader, DecoderContext decoderContext) {
+    Document document = new Document();
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = dictionary.intern(reader.readName());
+      document.put(name, readValue(reader, decoderContext));
+    }
+    reader.readEndDocument();
+    return document;
+  }
+
+  private List<Object> readList(BsonReader reader, DecoderContext decoderContext) {
+    List<Object> list = new ArrayList<>();
+    reader.readStartArray();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      list.add(readValue(reader, decoderContext));
+    }
+    reader.readEndArray();
+    return list;
+  }
+
+  private Object readValue(BsonReader reader, DecoderContext decoderContext) {
+    BsonType bsonType = reader.getCurrentBsonType();
+    switch (bsonType) {
+      case NULL:
+        reader.readNull();
+        return null;
+      case DOCUMENT:
+        return readDocument(reader, decoderContext);
+      case ARRAY:
+        return readList(reader, decoderContext);
+      case STRING:
+        String value = reader.readString();
+        return value.length() <= MAX_INTERNED_VALUE_LENGTH ? dictionary.internValue(value) : value;
+      case BINARY:
+        byte subType = reader.peekBinarySubType();
+        if (subType == BsonBinarySubType.UUID_STANDARD.getValue() || subType == BsonBinarySubType.UUID_LEGACY.getValue()) {
+          return registry.get(UUID.class).decode(reader, decoderContext);
+        }
+        break;
+      default:
+        break;
+    }
+    return registry.get(BSON_TYPE_CLASS_MAP.get(bsonType)).decode(reader, decoderContext);
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Document value, EncoderContext encoderContext) {
+    documentCodec.encode(writer, value, encoderContext);
+  }
+
+  @Override
+  public Class<Document> getEncoderClass() {
+    return Document.class;
+  }
+}
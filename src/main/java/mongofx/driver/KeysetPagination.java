@@ -0,0 +1,284 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.bson.BsonRegularExpression;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.MaxKey;
+import org.bson.types.MinKey;
+import org.bson.types.ObjectId;
+import org.bson.types.Symbol;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+
+/**
+ * Range based paging. Remembers sort key of last document of every loaded page and turns request of next page into
+ * range query on sort keys instead of skip.
+ */
+public class KeysetPagination {
+  private static final String ID_FIELD = "_id";
+
+  // $type aliases in BSON sort order, $gt/$lt compare only values of the same group
+  private static final String[][] TYPE_ORDER = {{"minKey"}, {}, {"number"}, {"symbol", "string"}, {"object"},
+      {"array"}, {"binData"}, {"objectId"}, {"bool"}, {"date"}, {"timestamp"}, {"regex"}, {"maxKey"}};
+  // null and missing fields, matched by equality to null
+  private static final int NULL_TYPE = 1;
+  private static final int UNKNOWN_TYPE = -1;
+
+  private final LinkedHashMap<String, Integer> sortFields;
+  // position of first document after boundary -> sort key values of previous document
+  private final NavigableMap<Integer, List<Object>> pageBoundaries = new ConcurrentSkipListMap<>();
+
+  private KeysetPagination(LinkedHashMap<String, Integer> sortFields) {
+    this.sortFields = sortFields;
+  }
+
+  /**
+   * @param sort requested sort, null means natural order and replaced with sort by _id
+   * @return empty if sort keys can't identify document uniquely
+   */
+  public static Optional<KeysetPagination> create(Map<String, Object> sort) {
+    LinkedHashMap<String, Integer> sortFields = new LinkedHashMap<>();
+    if (sort == null || sort.isEmpty()) {
+      sortFields.put(ID_FIELD, 1);
+      return Optional.of(new KeysetPagination(sortFields));
+    }
+
+    for (Entry<String, Object> entry : sort.entrySet()) {
+      Object direction = entry.getValue();
+      if (!(direction instanceof Number)) {
+        // $meta sort and so on
+        return Optional.empty();
+      }
+      sortFields.put(entry.getKey(), ((Number) direction).intValue() < 0 ? -1 : 1);
+    }
+
+    if (!sortFields.containsKey(ID_FIELD)) {
+      return Optional.empty();
+    }
+    return Optional.of(new KeysetPagination(sortFields));
+  }
+
+  public BasicDBObject getSort() {
+    return new BasicDBObject(sortFields);
+  }
+
+  /**
+   * @return nearest known page boundary before skip position
+   */
+  public Optional<Entry<Integer, List<Object>>> findBoundary(int skip) {
+    return Optional.ofNullable(pageBoundaries.floorEntry(skip));
+  }
+
+  /**
+   * Documents after boundary: greater key of the same type or key of type sorted after, e.g. null and missing keys
+   * are last in descending sort
+   */
+  public BasicDBObject buildFilter(BasicDBObject findQuery, List<Object> keyValues) {
+    BasicDBList or = new BasicDBList();
+    List<String> fields = new ArrayList<>(sortFields.keySet());
+    for (int i = 0; i < fields.size(); i++) {
+      BasicDBObject prefix = new BasicDBObject();
+      for (int j = 0; j < i; j++) {
+        prefix.append(fields.get(j), keyValues.get(j));
+      }
+      String field = fields.get(i);
+      int direction = sortFields.get(field);
+      Object value = keyValues.get(i);
+      or.add(new BasicDBObject(prefix).append(field, new BasicDBObject(direction > 0 ? "$gt" : "$lt", value)));
+
+      int type = typeOrder(value);
+      for (int other = 0; other < TYPE_ORDER.length; other++) {
+        if (Integer.signum(other - type) != direction) {
+          continue;
+        }
+        if (other == NULL_TYPE) {
+          or.add(new BasicDBObject(prefix).append(field, null));
+        }
+        for (String alias : TYPE_ORDER[other]) {
+          or.add(new BasicDBObject(prefix).append(field, new BasicDBObject("$type", alias)));
+        }
+      }
+    }
+
+    BasicDBObject range = or.size() == 1 ? (BasicDBObject) or.get(0) : new BasicDBObject("$or", or);
+    if (findQuery == null || findQuery.isEmpty()) {
+      return range;
+    }
+    BasicDBList and = new BasicDBList();
+    and.add(findQuery);
+    and.add(range);
+    return new BasicDBObject("$and", and);
+  }
+
+  /**
+   * @return sort key values or empty if some key missing in document
+   */
+  public Optional<List<Object>> extractKey(Document document) {
+    List<Object> values = new ArrayList<>(sortFields.size());
+    for (String field : sortFields.keySet()) {
+      Object value = getPath(document, field);
+      int type = typeOrder(value);
+      // null and missing fields can't be compared with $gt/$lt, arrays are sorted by one of its elements
+      if (type == NULL_TYPE || type == UNKNOWN_TYPE || value instanceof List) {
+        return Optional.empty();
+      }
+      values.add(value);
+    }
+    return Optional.of(values);
+  }
+
+  /**
+   * @return index in {@link #TYPE_ORDER} or {@link #UNKNOWN_TYPE}
+   */
+  private static int typeOrder(Object value) {
+    if (value instanceof MinKey) {
+      return 0;
+    }
+    if (value == null) {
+      return NULL_TYPE;
+    }
+    if (value instanceof Number) {
+      return 2;
+    }
+    if (value instanceof String || value instanceof Symbol) {
+      return 3;
+    }
+    if (value instanceof Map) {
+      return 4;
+    }
+    if (value instanceof List) {
+      return 5;
+    }
+    if (value instanceof Binary || value instanceof byte[] || value instanceof UUID) {
+      return 6;
+    }
+    if (value instanceof ObjectId) {
+      return 7;
+    }
+    if (value instanceof Boolean) {
+      return 8;
+    }
+    if (value instanceof Date) {
+      return 9;
+    }
+    if (value instanceof BsonTimestamp) {
+      return 10;
+    }
+    if (value instanceof Pattern || value instanceof BsonRegularExpression) {
+      return 11;
+    }
+    if (value instanceof MaxKey) {
+      return 12;
+    }
+    return UNKNOWN_TYPE;
+  }
+
+  private static Object getPath(Document document, String path) {
+    Object current = document;
+    for (String part : path.split("\\.")) {
+      if (!(current instanceof Map)) {
+        return null;
+      }
+      current = ((Map<?, ?>) current).get(part);
+    }
+    return current;
+  }
+
+  public void addBoundary(int position, List<Object> keyValues) {
+    pageBoundaries.put(position, keyValues);
+  }
+
+  /**
+   * Wrap cursor to remember key of last read document
+   */
+  public MongoCursor<Document> track(MongoCursor<Document> cursor, int startPosition) {
+    return new TrackingCursor(cursor, startPosition);
+  }
+
+  private class TrackingCursor implements MongoCursor<Document> {
+    private final MongoCursor<Document> cursor;
+    private int position;
+    private Document last;
+
+    public TrackingCursor(MongoCursor<Document> cursor, int startPosition) {
+      this.cursor = cursor;
+      this.position = startPosition;
+    }
+
+    @Override
+    public void close() {
+      if (last != null) {
+        extractKey(last).ifPresent(k -> addBoundary(position, k));
+      }
+      cursor.close();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor.hasNext();
+    }
+
+    @Override
+    public Document next() {
+      return track(cursor.next());
+    }
+
+    @Override
+    public Document tryNext() {
+      return track(cursor.tryNext());
+    }
+
+    private Document track(Document document) {
+      if (document != null) {
+        last = document;
+        position++;
+      }
+      return document;
+    }
+
+    @Override
+    public ServerCursor getServerCursor() {
+      return cursor.getServerCursor();
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+      return cursor.getServerAddress();
+    }
+  }
+}
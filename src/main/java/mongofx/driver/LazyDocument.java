@@ -0,0 +1,234 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.RawBsonDocumentCodec;
+
+/**
+ * Document backed by raw BSON. Field is decoded on first access, all fields are decoded when document is iterated or
+ * modified. Nested documents stay raw until accessed.
+ */
+public class LazyDocument extends Document {
+  private static final long serialVersionUID = 1L;
+
+  private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+  private static final BsonValueCodec VALUE_CODEC = new BsonValueCodec();
+  private static final RawBsonDocumentCodec RAW_CODEC = new RawBsonDocumentCodec();
+  private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+  // null when fully decoded
+  private RawBsonDocument raw;
+  private Set<String> keys;
+  private Map<String, Object> decodedFields = new HashMap<>();
+
+  public LazyDocument(RawBsonDocument raw) {
+    this.raw = raw;
+  }
+
+  public synchronized boolean isDecoded() {
+    return raw == null;
+  }
+
+  /**
+   * @return size of raw BSON or -1 if already decoded
+   */
+  public synchronized int getRawSize() {
+    return raw == null ? -1 : raw.getByteBuffer().remaining();
+  }
+
+  @Override
+  public synchronized int size() {
+    return raw == null ? super.size() : keys().size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public synchronized boolean containsKey(Object key) {
+    return raw == null ? super.containsKey(key) : keys().contains(key);
+  }
+
+  @Override
+  public synchronized Object get(Object key) {
+    if (raw == null) {
+      return super.get(key);
+    }
+    if (!keys().contains(key)) {
+      return null;
+    }
+    String name = (String) key;
+    if (!decodedFields.containsKey(name)) {
+      decodedFields.put(name, readField(name));
+    }
+    return decodedFields.get(name);
+  }
+
+  @Override
+  public synchronized boolean containsValue(Object value) {
+    decode();
+    return super.containsValue(value);
+  }
+
+  @Override
+  public synchronized Object put(String key, Object value) {
+    decode();
+    return super.put(key, value);
+  }
+
+  @Override
+  public synchronized Object remove(Object key) {
+    decode();
+    return super.remove(key);
+  }
+
+  @Override
+  public synchronized void putAll(Map<? extends String, ? extends Object> map) {
+    decode();
+    super.putAll(map);
+  }
+
+  @Override
+  public synchronized void clear() {
+    decode();
+    super.clear();
+  }
+
+  @Override
+  public synchronized Set<String> keySet() {
+    decode();
+    return super.keySet();
+  }
+
+  @Override
+  public synchronized Collection<Object> values() {
+    decode();
+    return super.values();
+  }
+
+  @Override
+  public synchronized Set<Map.Entry<String, Object>> entrySet() {
+    decode();
+    return super.entrySet();
+  }
+
+  @Override
+  public synchronized boolean equals(Object o) {
+    decode();
+    return super.equals(o);
+  }
+
+  @Override
+  public synchronized int hashCode() {
+    decode();
+    return super.hashCode();
+  }
+
+  @Override
+  public synchronized String toString() {
+    decode();
+    return super.toString();
+  }
+
+  private Set<String> keys() {
+    if (keys == null) {
+      Set<String> names = new LinkedHashSet<>();
+      try (BsonBinaryReader reader = createReader()) {
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+          names.add(reader.readName());
+          reader.skipValue();
+        }
+      }
+      keys = Collections.unmodifiableSet(names);
+    }
+    return keys;
+  }
+
+  private Object readField(String name) {
+    try (BsonBinaryReader reader = createReader()) {
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+        if (reader.readName().equals(name)) {
+          return readValue(name, reader);
+        }
+        reader.skipValue();
+      }
+    }
+    return null;
+  }
+
+  private void decode() {
+    if (raw == null) {
+      return;
+    }
+
+    Map<String, Object> fields = new LinkedHashMap<>();
+    try (BsonBinaryReader reader = createReader()) {
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+        String name = reader.readName();
+        if (decodedFields.containsKey(name)) {
+          fields.put(name, decodedFields.get(name));
+          reader.skipValue();
+        } else {
+          fields.put(name, readValue(name, reader));
+        }
+      }
+    }
+
+    raw = null;
+    keys = null;
+    decodedFields = null;
+    super.putAll(fields);
+  }
+
+  private BsonBinaryReader createReader() {
+    return new BsonBinaryReader(raw.getByteBuffer().asNIO());
+  }
+
+  private static Object readValue(String name, BsonBinaryReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+      return new LazyDocument(RAW_CODEC.decode(reader, DECODER_CONTEXT));
+    }
+    // values other than documents converted by document codec to get same java types as usual
+    BsonValue value = VALUE_CODEC.decode(reader, DECODER_CONTEXT);
+    return DOCUMENT_CODEC.decode(new BsonDocumentReader(new BsonDocument(name, value)), DECODER_CONTEXT).get(name);
+  }
+}
@@ -0,0 +1,64 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.RawBsonDocumentCodec;
+
+/**
+ * Decodes documents as {@link LazyDocument}, only copies raw bytes of document
+ */
+public class LazyDocumentCodec implements Codec<Document> {
+  private final RawBsonDocumentCodec rawCodec = new RawBsonDocumentCodec();
+  private final Codec<Document> documentCodec;
+  private final DocumentSizeStats sizeStats;
+
+  /**
+   * @param sizeStats receives BSON size of decoded documents, may be null
+   */
+  public LazyDocumentCodec(Codec<Document> documentCodec, DocumentSizeStats sizeStats) {
+    this.documentCodec = documentCodec;
+    this.sizeStats = sizeStats;
+  }
+
+  @Override
+  public Document decode(BsonReader reader, DecoderContext decoderContext) {
+    RawBsonDocument raw = rawCodec.decode(reader, decoderContext);
+    if (sizeStats != null) {
+      sizeStats.record(raw.getByteBuffer().remaining());
+    }
+    return new LazyDocument(raw);
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Document value, EncoderContext encoderContext) {
+    documentCodec.encode(writer, value, encoderContext);
+  }
+
+  @Override
+  public Class<Document> getEncoderClass() {
+    return Document.class;
+  }
+}
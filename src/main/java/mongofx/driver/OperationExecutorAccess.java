@@ -0,0 +1,52 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import java.lang.reflect.Field;
+
+import com.mongodb.operation.OperationExecutor;
+
+/**
+ * Driver does not expose executor of operations, it is taken from database implementation
+ */
+public class OperationExecutorAccess {
+  private static volatile Field executorField;
+
+  private OperationExecutorAccess() {
+  }
+
+  public static OperationExecutor get(com.mongodb.client.MongoDatabase mongoDb) {
+    try {
+      return (OperationExecutor) getExecutorField(mongoDb.getClass()).get(mongoDb);
+    }
+    catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
+      throw new IllegalStateException("Can't get operation executor of driver", e);
+    }
+  }
+
+  private static Field getExecutorField(Class<?> databaseClass) throws NoSuchFieldException {
+    Field field = executorField;
+    if (field == null || field.getDeclaringClass() != databaseClass) {
+      field = databaseClass.getDeclaredField("executor");
+      field.setAccessible(true);
+      executorField = field;
+    }
+    return field;
+  }
+}
@@ -0,0 +1,93 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import com.mongodb.BasicDBObject;
+
+/**
+ * Query modifiers of find, driver sends them as fields of find command or as $ modifiers to old servers
+ */
+public class QueryModifiers {
+  private Object hint;
+  private String comment;
+  private BasicDBObject min;
+  private BasicDBObject max;
+  private boolean returnKey = false;
+  private boolean showRecordId = false;
+
+  /**
+   * @param hint index name or index specification
+   */
+  public QueryModifiers hint(Object hint) {
+    this.hint = hint;
+    return this;
+  }
+
+  public QueryModifiers comment(String comment) {
+    this.comment = comment;
+    return this;
+  }
+
+  public QueryModifiers min(BasicDBObject min) {
+    this.min = min;
+    return this;
+  }
+
+  public QueryModifiers max(BasicDBObject max) {
+    this.max = max;
+    return this;
+  }
+
+  public QueryModifiers returnKey(boolean returnKey) {
+    this.returnKey = returnKey;
+    return this;
+  }
+
+  public QueryModifiers showRecordId(boolean showRecordId) {
+    this.showRecordId = showRecordId;
+    return this;
+  }
+
+  public boolean isEmpty() {
+    return toDocument().isEmpty();
+  }
+
+  public BasicDBObject toDocument() {
+    BasicDBObject modifiers = new BasicDBObject();
+    if (hint != null) {
+      modifiers.append("$hint", hint);
+    }
+    if (comment != null) {
+      modifiers.append("$comment", comment);
+    }
+    if (min != null) {
+      modifiers.append("$min", min);
+    }
+    if (max != null) {
+      modifiers.append("$max", max);
+    }
+    if (returnKey) {
+      modifiers.append("$returnKey", true);
+    }
+    if (showRecordId) {
+      modifiers.append("$showDiskLoc", true);
+    }
+    return modifiers;
+  }
+}
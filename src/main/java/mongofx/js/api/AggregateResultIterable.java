@@ -18,32 +18,48 @@
 //
 package mongofx.js.api;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Spliterators;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.TimeUnit;
 
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 
+import mongofx.driver.FieldNameDictionary;
+import mongofx.driver.InterningDocumentCodec;
 import mongofx.service.MongoDatabase;
+import mongofx.service.OperationContext;
 
 /**
  * @author daa
  *
  */
 public class AggregateResultIterable implements ObjectListPresentation {
+  private static final String OUT_STAGE = "$out";
+
   private final MongoDatabase mongoDatabase;
   private final List<BasicDBObject> pipeline;
   private final String collectionName;
+  private final FieldNameDictionary fieldNames = new FieldNameDictionary();
+  private final OperationContext context = OperationContext.current();
+  private Boolean allowDiskUse = null;
+  private Long maxTimeMS = null;
+  private Integer batchSize = null;
+  private boolean outWritten = false;
 
   public AggregateResultIterable(MongoDatabase mongoDatabase, String collectionName, List<BasicDBObject> pipeline) {
     super();
     this.mongoDatabase = mongoDatabase;
     this.collectionName = collectionName;
     this.pipeline = pipeline;
+    context.checkCancelled();
   }
 
   @Override
@@ -61,11 +77,118 @@ public class AggregateResultIterable implements ObjectListPresentation {
     return Optional.empty();
   }
 
+  @JsField("Enables writing to temporary files for large sort and group stages")
+  public AggregateResultIterable allowDiskUse(boolean allowDiskUse) {
+    this.allowDiskUse = allowDiskUse;
+    return this;
+  }
+
+  @JsField("Server side time limit of aggregation in milliseconds")
+  public AggregateResultIterable maxTimeMS(long maxTimeMS) {
+    this.maxTimeMS = maxTimeMS;
+    return this;
+  }
+
+  @JsField("Number of documents returned by server in one batch")
+  public AggregateResultIterable batchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  @JsField("Returns information on the processing of the pipeline")
+  public ObjectListPresentation explain() {
+    BasicDBObject command = new BasicDBObject("aggregate", collectionName).append("pipeline", pipeline)
+        .append("explain", true);
+    if (allowDiskUse != null) {
+      command.append("allowDiskUse", allowDiskUse);
+    }
+    if (maxTimeMS != null) {
+      command.append("maxTimeMS", maxTimeMS);
+    }
+    return JsApiUtils.singletonIter(mongoDatabase.getMongoDb().runCommand(command));
+  }
+
+  @JsIgnore
   @Override
   public MongoCursor<Document> iterator(int skip, int limit) {
-    try (MongoCursor<Document> iterator = mongoDatabase.getMongoDb().getCollection(collectionName).aggregate(pipeline).iterator()) {
-      return new JsApiUtils.SimpleIteratorMongoCursor(StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false).skip(skip).limit(limit).iterator());
+    Optional<String> out = getOutCollection();
+    if (out.isPresent()) {
+      return outIterator(out.get(), skip, limit, 0);
+    }
+    return context.track(createAggregate(pagePipeline(skip, limit), batchSize).iterator());
+  }
+
+  @JsIgnore
+  @Override
+  public Optional<MongoCursor<Document>> continuousIterator(int skip, int limit, int batchSize) {
+    Optional<String> out = getOutCollection();
+    if (out.isPresent()) {
+      return Optional.of(outIterator(out.get(), skip, limit, batchSize));
+    }
+    return Optional.of(context.track(createAggregate(pagePipeline(skip, limit), batchSize).iterator()));
+  }
+
+  @JsIgnore
+  @Override
+  public Optional<FieldNameDictionary> getFieldNameDictionary() {
+    return Optional.of(fieldNames);
+  }
+
+  /**
+   * Page is selected by server, so only documents of page are sent
+   */
+  private List<BasicDBObject> pagePipeline(int skip, int limit) {
+    List<BasicDBObject> pagePipeline = new ArrayList<>(pipeline);
+    if (skip > 0) {
+      pagePipeline.add(new BasicDBObject("$skip", skip));
+    }
+    if (limit > 0) {
+      pagePipeline.add(new BasicDBObject("$limit", limit));
     }
+    return pagePipeline;
   }
 
+  private Optional<String> getOutCollection() {
+    if (pipeline.isEmpty()) {
+      return Optional.empty();
+    }
+    Object out = pipeline.get(pipeline.size() - 1).get(OUT_STAGE);
+    return out instanceof String ? Optional.of((String) out) : Optional.empty();
+  }
+
+  /**
+   * Stages can't be added after $out, so pipeline executed once and pages read from output collection
+   */
+  private MongoCursor<Document> outIterator(String outCollection, int skip, int limit, int batchSize) {
+    synchronized (this) {
+      if (!outWritten) {
+        createAggregate(pipeline, 1).first();
+        outWritten = true;
+      }
+    }
+    return context.track(getCollection(outCollection).find(context.tag(new BasicDBObject())).skip(skip).limit(limit)
+        .batchSize(batchSize).iterator());
+  }
+
+  private AggregateIterable<Document> createAggregate(List<BasicDBObject> stages, Integer batchSize) {
+    AggregateIterable<Document> aggregate = getCollection(collectionName).aggregate(context.tag(stages)).useCursor(true);
+    if (allowDiskUse != null) {
+      aggregate.allowDiskUse(allowDiskUse);
+    }
+    Optional<Long> maxTime = maxTimeMS != null ? Optional.of(maxTimeMS) : context.getDefaultMaxTimeMS();
+    if (maxTime.isPresent()) {
+      aggregate.maxTime(maxTime.get(), TimeUnit.MILLISECONDS);
+    }
+    if (batchSize != null && batchSize > 0) {
+      aggregate.batchSize(batchSize);
+    }
+    return aggregate;
+  }
+
+  private MongoCollection<Document> getCollection(String name) {
+    MongoCollection<Document> collection = mongoDatabase.getMongoDb().getCollection(name);
+    CodecRegistry registry = collection.getCodecRegistry();
+    return collection.withCodecRegistry(CodecRegistries.fromRegistries(
+        CodecRegistries.fromCodecs(new InterningDocumentCodec(registry, fieldNames)), registry));
+  }
 }
@@ -22,16 +22,20 @@ import com.mongodb.BasicDBObject;
 import com.mongodb.BasicDBObjectBuilder;
 import com.mongodb.MongoNamespace;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.RenameCollectionOptions;
 import com.mongodb.client.model.UpdateOptions;
 import mongofx.service.MongoDatabase;
+import mongofx.service.OperationContext;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import javax.script.Bindings;
 import javax.script.SimpleBindings;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static mongofx.js.api.JsApiUtils.*;
@@ -66,7 +70,7 @@ public class Collection {
   }
 
   public long remove(Bindings item) {
-    return getCollection().deleteMany(JsApiUtils.dbObjectFromMap(item)).getDeletedCount();
+    return getCollection().deleteMany(context().tag(JsApiUtils.dbObjectFromMap(item))).getDeletedCount();
   }
 
   public long update(Bindings filter, Bindings update) {
@@ -84,29 +88,78 @@ public class Collection {
     }
 
     if (multi) {
-      return getCollection().updateMany(JsApiUtils.dbObjectFromMap(filter), JsApiUtils.dbObjectFromMap(update),
+      return getCollection().updateMany(context().tag(JsApiUtils.dbObjectFromMap(filter)), JsApiUtils.dbObjectFromMap(update),
           JsApiUtils.buildOptions(new UpdateOptions(), options)).getModifiedCount();
     }
-    return getCollection().updateOne(JsApiUtils.dbObjectFromMap(filter), JsApiUtils.dbObjectFromMap(update),
+    return getCollection().updateOne(context().tag(JsApiUtils.dbObjectFromMap(filter)), JsApiUtils.dbObjectFromMap(update),
         JsApiUtils.buildOptions(new UpdateOptions(), options)).getModifiedCount();
   }
 
   @JsField("Provides access to the aggregation pipeline.")
-  public ObjectListPresentation aggregate(List<Bindings> pipeline) {
+  public AggregateResultIterable aggregate(List<Bindings> pipeline) {
     return new AggregateResultIterable(mongoDatabase, name, JsApiUtils.dbObjectFromList(pipeline));
   }
 
+  @JsField("Provides access to the aggregation pipeline. Options: allowDiskUse, maxTimeMS, cursor.batchSize, explain.")
+  public ObjectListPresentation aggregate(List<Bindings> pipeline, Bindings options) {
+    AggregateResultIterable aggregate = aggregate(pipeline);
+    if (options == null) {
+      return aggregate;
+    }
+
+    boolean explain = false;
+    for (Entry<String, Object> entry : options.entrySet()) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+      switch (key) {
+        case "allowDiskUse":
+          aggregate.allowDiskUse(optionValue(key, value, Boolean.class));
+          break;
+        case "maxTimeMS":
+          aggregate.maxTimeMS(optionValue(key, value, Number.class).longValue());
+          break;
+        case "batchSize":
+          aggregate.batchSize(optionValue(key, value, Number.class).intValue());
+          break;
+        case "cursor":
+          Object batchSize = optionValue(key, value, Bindings.class).get("batchSize");
+          if (batchSize != null) {
+            aggregate.batchSize(optionValue("cursor.batchSize", batchSize, Number.class).intValue());
+          }
+          break;
+        case "explain":
+          explain = optionValue(key, value, Boolean.class);
+          break;
+        default:
+          throw new IllegalArgumentException("Wrong options argument " + key);
+      }
+    }
+    if (explain) {
+      return aggregate.explain();
+    }
+    return aggregate;
+  }
+
+  private static <T> T optionValue(String key, Object value, Class<T> type) {
+    if (!type.isInstance(value)) {
+      throw new IllegalArgumentException("Wrong options argument " + key + ": " + type.getSimpleName() + " expected");
+    }
+    return type.cast(value);
+  }
+
   public String createIndex(Bindings index) {
     return createIndex(index, null);
   }
 
   public ObjectListPresentation getIndexes() {
-    return JsApiUtils.iter(getCollection().listIndexes());
+    return JsApiUtils.iter(mongoDatabase.listIndexes(name));
   }
 
   public String createIndex(Bindings index, Bindings options) {
-    return getCollection().createIndex(dbObjectFromMap(index),
+    String indexName = getCollection().createIndex(dbObjectFromMap(index),
         buildOptions(new IndexOptions(), options));
+    mongoDatabase.invalidateCollection(name);
+    return indexName;
   }
 
   public ObjectListPresentation reIndex() {
@@ -115,28 +168,42 @@ public class Collection {
 
   public void dropIndex(String indexName) {
     getCollection().dropIndex(indexName);
+    mongoDatabase.invalidateCollection(name);
   }
 
   public void dropIndex(Bindings index) {
     getCollection().dropIndex(JsApiUtils.dbObjectFromMap(index));
+    mongoDatabase.invalidateCollection(name);
   }
 
   public void dropIndexes() {
     getCollection().dropIndexes();
+    mongoDatabase.invalidateCollection(name);
   }
 
   private MongoCollection<Document> getCollection() {
+    context().checkCancelled();
     return mongoDatabase.getMongoDb().getCollection(name);
   }
 
+  /**
+   * Context of script run calling this method
+   */
+  private OperationContext context() {
+    return OperationContext.current();
+  }
+
   @JsField("Wraps count to return a count of the number of documents in a collection or matching a query.")
   public long count() {
-    return getCollection().count();
+    // empty filter is tagged, so count of whole collection can be killed too
+    return count(new SimpleBindings());
   }
 
   @JsField("Wraps count to return a count of the number of documents in a collection or matching a query.")
   public long count(Bindings find) {
-    return getCollection().count(JsApiUtils.dbObjectFromMap(find));
+    CountOptions options = new CountOptions();
+    context().getDefaultMaxTimeMS().ifPresent(maxTime -> options.maxTime(maxTime, TimeUnit.MILLISECONDS));
+    return getCollection().count(context().tag(JsApiUtils.dbObjectFromMap(find)), options);
   }
 
   public ObjectListPresentation distinct(String key) {
@@ -147,10 +214,11 @@ public class Collection {
     BasicDBObjectBuilder command = new BasicDBObjectBuilder() //
         .add("distinct", name) //
         .add("key", key); //
-    if (query != null) {
-      command.add("query", query);
-    }
+    BasicDBObject filter = query != null ? JsApiUtils.dbObjectFromMap(query) : new BasicDBObject();
+    command.add("query", context().tag(filter));
+    context().getDefaultMaxTimeMS().ifPresent(maxTime -> command.add("maxTimeMS", maxTime));
 
+    context().checkCancelled();
     return singletonIter(mongoDatabase.getMongoDb().runCommand((Bson)command.get()));
   }
 
@@ -174,14 +242,21 @@ public class Collection {
     command.add("map", map);
     command.add("reduce", reduce);
 
-    putObject("query", options, command);
+    Bindings query = (Bindings) options.get("query");
+    command.add("query", context().tag(query != null ? JsApiUtils.dbObjectFromMap(query) : new BasicDBObject()));
     putObject("out", options, command);
     putObject("scope", options, command);
     putSimpleField("field", options, command);
     putSimpleField("jsMode", options, command);
     putSimpleField("finilize", options, command);
     putSimpleField("verbose", options, command);
+    if (options.get("maxTimeMS") != null) {
+      putSimpleField("maxTimeMS", options, command);
+    } else {
+      context().getDefaultMaxTimeMS().ifPresent(maxTime -> command.add("maxTimeMS", maxTime));
+    }
 
+    context().checkCancelled();
     return singletonIter(mongoDatabase.getMongoDb().runCommand((Bson)command.get()));
   }
 
@@ -191,6 +266,7 @@ public class Collection {
 
   public void renameCollection(String target, boolean dropTarget) {
     getCollection().renameCollection(new MongoNamespace(mongoDatabase.getName(), target), new RenameCollectionOptions().dropTarget(dropTarget));
+    mongoDatabase.invalidateCollections();
   }
 
   public ObjectListPresentation stats() {
@@ -220,5 +296,6 @@ public class Collection {
   @JsField("Removes the specified collection from the database")
   public void drop() {
     getCollection().drop();
+    mongoDatabase.invalidateCollections();
   }
 }
@@ -48,17 +48,24 @@ public class DB extends HashMap<String, Object> {
   public DB(mongofx.service.MongoDatabase mongoDatabase) {
     super();
     this.mongoDatabase = mongoDatabase;
-    mongoDatabase.getCachedCollections().stream().forEach(n -> put(n, new Collection(mongoDatabase, n)));
   }
 
+  /**
+   * Collections resolved lazily, handles are cached in {@link MongoDatabase}
+   */
   @Override
   public Object get(Object key) {
-    Object collection = super.get(key);
-    if (collection == null && key instanceof String) {
-      log.warn("Collection {} does not exists", key);
-      return new Collection(mongoDatabase, (String) key);
+    Object value = super.get(key);
+    if (value == null && key instanceof String) {
+      String name = (String) key;
+      // only names already known are checked, first query should not wait for list of collections
+      if (!mongoDatabase.isCollectionHandleCached(name)
+          && mongoDatabase.peekCachedCollections().map(names -> !names.contains(name)).orElse(false)) {
+        log.warn("Collection {} does not exists", key);
+      }
+      return mongoDatabase.getCollectionHandle(name);
     }
-    return collection;
+    return value;
   }
 
   public Collection getCollection(String name) {
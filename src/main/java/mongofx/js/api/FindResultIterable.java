@@ -18,11 +18,14 @@
 //
 package mongofx.js.api;
 
-import java.lang.reflect.Field;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import javax.script.Bindings;
@@ -34,15 +37,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.CursorType;
 import com.mongodb.ExplainVerbosity;
 import com.mongodb.MongoNamespace;
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CountOptions;
 import com.mongodb.client.model.FindOptions;
-import com.mongodb.operation.OperationExecutor;
 
+import mongofx.driver.DocumentSizeStats;
+import mongofx.driver.FieldNameDictionary;
 import mongofx.driver.FindIterable;
+import mongofx.driver.KeysetPagination;
+import mongofx.driver.QueryModifiers;
 import mongofx.service.MongoDatabase;
+import mongofx.service.OperationContext;
 
 import static mongofx.js.api.JsApiUtils.dbObjectFromMap;
 
@@ -53,16 +65,26 @@ public class FindResultIterable implements ObjectListPresentation, Iterable<Bind
   private final BasicDBObject findQuery;
   private final BasicDBObject projection;
   private final String collectionName;
-  private final FindOptions findOptions = new FindOptions();
   private Integer skip = null;
   private Integer limit = null;
   private Bindings sort = null;
+  private boolean keysetPaging = false;
+  private boolean rawResults = false;
+  private Long maxTimeMS = null;
+  private Integer batchSize = null;
+  private ReadPreference readPreference = null;
+  private CursorType cursorType = CursorType.NonTailable;
+  private final QueryModifiers modifiers = new QueryModifiers();
+  private Optional<KeysetPagination> keysetPagination;
+  private final FieldNameDictionary fieldNames = new FieldNameDictionary();
+  private final OperationContext context = OperationContext.current();
 
   public FindResultIterable(MongoDatabase mongoDatabase, String collectionName, BasicDBObject findQuery, BasicDBObject projection) {
     this.mongoDatabase = mongoDatabase;
     this.collectionName = collectionName;
     this.findQuery = findQuery;
     this.projection = projection;
+    context.checkCancelled();
   }
 
   public FindResultIterable(MongoDatabase mongoDatabase, String collectionName) {
@@ -70,6 +92,7 @@ public class FindResultIterable implements ObjectListPresentation, Iterable<Bind
     this.collectionName = collectionName;
     findQuery = new BasicDBObject(); // find all
     projection = null;
+    context.checkCancelled();
   }
 
   @Override
@@ -97,11 +120,162 @@ public class FindResultIterable implements ObjectListPresentation, Iterable<Bind
     return this;
   }
 
+  @JsField("Forces query to use index, index name or specification")
+  public FindResultIterable hint(Object index) {
+    modifiers.hint(index instanceof Bindings ? dbObjectFromMap((Bindings) index) : index);
+    return this;
+  }
+
+  @JsField("Server side time limit of query in milliseconds")
+  public FindResultIterable maxTimeMS(long maxTimeMS) {
+    this.maxTimeMS = maxTimeMS;
+    return this;
+  }
+
+  @JsField("Number of documents returned by server in one batch")
+  public FindResultIterable batchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  @JsField("Attaches comment to query, visible in profiler and currentOp")
+  public FindResultIterable comment(String comment) {
+    modifiers.comment(comment);
+    return this;
+  }
+
+  @JsField("Read preference mode: primary, primaryPreferred, secondary, secondaryPreferred, nearest")
+  public FindResultIterable readPref(String mode) {
+    this.readPreference = ReadPreference.valueOf(mode);
+    return this;
+  }
+
+  @JsField("Read preference mode with list of tag sets")
+  public FindResultIterable readPref(String mode, List<Bindings> tagSets) {
+    if (tagSets == null || tagSets.isEmpty()) {
+      return readPref(mode);
+    }
+    this.readPreference = ReadPreference.valueOf(mode, tagSets.stream()
+        .map(t -> new TagSet(t.entrySet().stream().map(e -> new Tag(e.getKey(), String.valueOf(e.getValue())))
+            .collect(Collectors.toList())))
+        .collect(Collectors.toList()));
+    return this;
+  }
+
+  @JsField("Inclusive lower bound of index keys, requires hint")
+  public FindResultIterable min(Bindings min) {
+    modifiers.min(dbObjectFromMap(min));
+    return this;
+  }
+
+  @JsField("Exclusive upper bound of index keys, requires hint")
+  public FindResultIterable max(Bindings max) {
+    modifiers.max(dbObjectFromMap(max));
+    return this;
+  }
+
+  @JsField("Returns only index keys of documents")
+  public FindResultIterable returnKey() {
+    modifiers.returnKey(true);
+    return this;
+  }
+
+  @JsField("Adds storage engine record id to every document")
+  public FindResultIterable showRecordId() {
+    modifiers.showRecordId(true);
+    return this;
+  }
+
+  @JsField("Cursor of capped collection is not closed after last document")
+  public FindResultIterable tailable() {
+    if (cursorType == CursorType.NonTailable) {
+      cursorType = CursorType.Tailable;
+    }
+    return this;
+  }
+
+  @JsField("Tailable cursor waits for new documents on server")
+  public FindResultIterable awaitData() {
+    cursorType = CursorType.TailableAwait;
+    return this;
+  }
+
+  @JsField("Page by range queries on sort keys instead of skip, sort should include _id")
+  public FindResultIterable keysetPaging() {
+    this.keysetPaging = true;
+    return this;
+  }
+
+  @JsField("Keep result documents as raw BSON, fields are decoded when shown")
+  public FindResultIterable rawResults() {
+    this.rawResults = true;
+    return this;
+  }
+
   @JsIgnore
   @Override
   public MongoCursor<Document> iterator(int skip, int limit) {
+    Optional<KeysetPagination> keyset = getKeysetPagination();
+    if (keyset.isPresent()) {
+      return keysetIterator(keyset.get(), skip, limit, limit);
+    }
+    return context.track(createFindIterable(findQuery, buildFindOptions(skip, limit, limit)).iterator());
+  }
+
+  @JsIgnore
+  @Override
+  public Optional<MongoCursor<Document>> continuousIterator(int skip, int limit, int batchSize) {
+    Optional<KeysetPagination> keyset = getKeysetPagination();
+    if (keyset.isPresent()) {
+      return Optional.of(keysetIterator(keyset.get(), skip, limit, batchSize));
+    }
+    return Optional.of(
+        context.track(createFindIterable(findQuery, buildFindOptions(skip, limit, batchSize)).iterator()));
+  }
+
+  private MongoCursor<Document> keysetIterator(KeysetPagination keyset, int skip, int limit, int pageSize) {
+    BasicDBObject filter = findQuery;
+    int serverSkip = skip;
+
+    Optional<Entry<Integer, List<Object>>> boundary = keyset.findBoundary(skip);
+    if (boundary.isPresent()) {
+      filter = keyset.buildFilter(findQuery, boundary.get().getValue());
+      serverSkip = skip - boundary.get().getKey();
+    }
+
+    FindOptions options = buildFindOptions(serverSkip, limit, pageSize);
+    options.sort(keyset.getSort());
+    return keyset.track(context.track(createFindIterable(filter, options).iterator()), skip);
+  }
+
+  private synchronized Optional<KeysetPagination> getKeysetPagination() {
+    if (!keysetPaging) {
+      return Optional.empty();
+    }
+    if (keysetPagination == null) {
+      keysetPagination = KeysetPagination.create(sort);
+      if (!keysetPagination.isPresent()) {
+        log.info("Sort keys of {} are not unique, skip based paging used", collectionName);
+      }
+    }
+    return keysetPagination;
+  }
+
+  private FindIterable createFindIterable(BasicDBObject filter, FindOptions options) {
     MongoCollection<Document> collection = getCollection();
+    return new FindIterable(new MongoNamespace(mongoDatabase.getName(), collectionName), collection.getCodecRegistry(), //
+        readPreference != null ? readPreference : collection.getReadPreference(), mongoDatabase.getOperationExecutor(),
+        context.tag(filter), options).lazyDecoding(rawResults)
+        .fieldNames(fieldNames).sizeStats(mongoDatabase.getDocumentSizeStats(collectionName));
+  }
 
+  /**
+   * New options for every call, pages may be loaded concurrently
+   *
+   * @param pageSize documents expected in first batch, 0 if unknown
+   */
+  private FindOptions buildFindOptions(int skip, int limit, int pageSize) {
+    FindOptions findOptions = new FindOptions();
     findOptions.skip(skip);
     findOptions.limit(limit);
     if (projection != null) {
@@ -110,23 +284,45 @@ public class FindResultIterable implements ObjectListPresentation, Iterable<Bind
     if (sort != null) {
       findOptions.sort(dbObjectFromMap(sort));
     }
-    return new FindIterable(new MongoNamespace(mongoDatabase.getName(), collectionName), collection.getCodecRegistry(), //
-        collection.getReadPreference(), getExecutor(), findQuery, findOptions).iterator();
+    Optional<Long> maxTime = maxTimeMS != null ? Optional.of(maxTimeMS) : context.getDefaultMaxTimeMS();
+    if (maxTime.isPresent()) {
+      findOptions.maxTime(maxTime.get(), TimeUnit.MILLISECONDS);
+    }
+    int firstBatchSize = firstBatchSize(batchSize, mongoDatabase.getDocumentSizeStats(collectionName), pageSize);
+    if (firstBatchSize != 0) {
+      findOptions.batchSize(firstBatchSize);
+    }
+    if (!modifiers.isEmpty()) {
+      findOptions.modifiers(modifiers.toDocument());
+    }
+    findOptions.cursorType(cursorType);
+    return findOptions;
   }
 
-  private OperationExecutor getExecutor() {
-    try {
-      // this is hack to get executor
-      // hope will be removed when 3 series driver have explain function
-      com.mongodb.client.MongoDatabase mongoDb = mongoDatabase.getMongoDb();
-      Field f = mongoDb.getClass().getDeclaredField("executor");
-      f.setAccessible(true);
-      return (OperationExecutor) f.get(mongoDb);
-    }
-    catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-      log.error("Exception:",e);
-      return null;
+  /**
+   * Batch size set by user has priority, otherwise page should come in one round trip within byte budget. Driver
+   * default first batch is only 101 documents.
+   *
+   * @return 0 to keep driver default
+   */
+  static int firstBatchSize(Integer batchSize, DocumentSizeStats sizeStats, int pageSize) {
+    if (batchSize != null) {
+      return batchSize;
     }
+    return pageSize > 0 ? sizeStats.batchSizeFor(pageSize) : 0;
+  }
+
+
+  @JsIgnore
+  @Override
+  public boolean isTailable() {
+    return cursorType != CursorType.NonTailable;
+  }
+
+  @JsIgnore
+  @Override
+  public Optional<FieldNameDictionary> getFieldNameDictionary() {
+    return Optional.of(fieldNames);
   }
 
   @JsIgnore
@@ -140,19 +336,65 @@ public class FindResultIterable implements ObjectListPresentation, Iterable<Bind
   }
 
   public long count() {
-    return getCollection().count(findQuery);
+    CountOptions options = new CountOptions();
+    context.getDefaultMaxTimeMS().ifPresent(maxTime -> options.maxTime(maxTime, TimeUnit.MILLISECONDS));
+    return getCollection().count(context.tag(findQuery), options);
+  }
+
+  @JsIgnore
+  @Override
+  public Optional<Long> estimatedCount() {
+    // count without query is answered from collection metadata
+    return Optional.of(getCollection().count());
+  }
+
+  @JsIgnore
+  @Override
+  public boolean isFiltered() {
+    return findQuery != null && !findQuery.isEmpty();
+  }
+
+  @JsIgnore
+  @Override
+  public Optional<Long> countWithin(long maxTimeMS) {
+    return Optional.of(getCollection().count(context.tag(findQuery), new CountOptions().maxTime(maxTimeMS, TimeUnit.MILLISECONDS)));
   }
 
   public ObjectListPresentation explain() {
-    MongoCollection<Document> collection = getCollection();
+    return explain(ExplainVerbosity.QUERY_PLANNER);
+  }
 
-    FindIterable findIterable = new FindIterable(new MongoNamespace(mongoDatabase.getName(), collectionName), collection.getCodecRegistry(), //
-        collection.getReadPreference(), getExecutor(), findQuery, findOptions);
+  @JsField("Explain with verbosity: queryPlanner, executionStats or allPlansExecution")
+  public ObjectListPresentation explain(Object verbosity) {
+    return explain(parseVerbosity(verbosity));
+  }
+
+  private ObjectListPresentation explain(ExplainVerbosity verbosity) {
+    int explainLimit = limit != null ? limit : 0;
+    FindIterable findIterable = createFindIterable(findQuery,
+        buildFindOptions(skip != null ? skip : 0, explainLimit, explainLimit));
 
-    BsonDocument res = findIterable.explainIterator(ExplainVerbosity.QUERY_PLANNER);
+    BsonDocument res = findIterable.explainIterator(verbosity);
     return JsApiUtils.singletonIter(JsApiUtils.convertBsonToDocument(res));
   }
 
+  private static ExplainVerbosity parseVerbosity(Object verbosity) {
+    if (verbosity instanceof Boolean) {
+      // same as in shell, true means the most verbose mode
+      return (Boolean) verbosity ? ExplainVerbosity.ALL_PLANS_EXECUTIONS : ExplainVerbosity.QUERY_PLANNER;
+    }
+    switch (String.valueOf(verbosity)) {
+      case "queryPlanner":
+        return ExplainVerbosity.QUERY_PLANNER;
+      case "executionStats":
+        return ExplainVerbosity.EXECUTION_STATS;
+      case "allPlansExecution":
+        return ExplainVerbosity.ALL_PLANS_EXECUTIONS;
+      default:
+        throw new IllegalArgumentException("Wrong explain verbosity " + verbosity);
+    }
+  }
+
   @Override
   public void forEach(Consumer<? super Bindings> action) {
     Iterable.super.forEach(action);
@@ -161,6 +403,10 @@ public class FindResultIterable implements ObjectListPresentation, Iterable<Bind
   @Override
   public Iterator<Bindings> iterator() {
     return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(skip != null ? skip : 0, limit != null ? limit : 0), 0), false)
-        .map(v -> (Bindings)new SimpleBindings(v)).iterator();
+        .map(v -> {
+          // long loops over results stop on cancel
+          context.checkCancelled();
+          return (Bindings)new SimpleBindings(v);
+        }).iterator();
   }
 }
@@ -22,6 +22,8 @@ import org.bson.Document;
 
 import com.mongodb.client.MongoCursor;
 
+import mongofx.driver.FieldNameDictionary;
+
 import java.util.Optional;
 
 public interface ObjectListPresentation {
@@ -33,4 +35,50 @@ public interface ObjectListPresentation {
   Optional<Integer> getLimit();
 
   MongoCursor<Document> iterator(int skip, int limit);
+
+  /**
+   * Cursor over window of several pages, kept open to continue reading next pages with getMore. Window is limited,
+   * so sort on server stays top-k sort.
+   * @param batchSize documents of one page, first batch of find is also limited by byte budget
+   * @return empty if result does not support continuation
+   */
+  default Optional<MongoCursor<Document>> continuousIterator(int skip, int limit, int batchSize) {
+    return Optional.empty();
+  }
+
+  /**
+   * @return true if cursor is not closed after last document, so cursor must be read with tryNext
+   */
+  default boolean isTailable() {
+    return false;
+  }
+
+  /**
+   * Fast count of collection documents from metadata, query is not applied
+   */
+  default Optional<Long> estimatedCount() {
+    return Optional.empty();
+  }
+
+  /**
+   * @return true if only part of collection documents selected, so estimated count is upper bound
+   */
+  default boolean isFiltered() {
+    return true;
+  }
+
+  /**
+   * Exact count of documents, limited by server execution time
+   * @throws com.mongodb.MongoExecutionTimeoutException if count is not finished in time
+   */
+  default Optional<Long> countWithin(long maxTimeMS) {
+    return Optional.empty();
+  }
+
+  /**
+   * Strings shared by decoded documents of this result
+   */
+  default Optional<FieldNameDictionary> getFieldNameDictionary() {
+    return Optional.empty();
+  }
 }
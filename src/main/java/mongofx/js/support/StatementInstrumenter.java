@@ -0,0 +1,104 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.js.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+
+import mongofx.js.antlr4.parser.ECMAScriptLexer;
+import mongofx.js.antlr4.parser.ECMAScriptParser;
+import mongofx.js.antlr4.parser.ECMAScriptParser.ProgramContext;
+import mongofx.js.antlr4.parser.ECMAScriptParser.SourceElementContext;
+import mongofx.service.ScriptProfile;
+import mongofx.service.ScriptProfile.Statement;
+
+/**
+ * Adds profile marker before each top level statement. Marker is inserted on the same line, so line numbers of errors
+ * and result of script are not changed.
+ */
+public class StatementInstrumenter {
+  private static final int MAX_TEXT_LENGTH = 80;
+
+  public static InstrumentedScript instrument(String script) {
+    ECMAScriptLexer lexer = new ECMAScriptLexer(new ANTLRInputStream(script));
+    ECMAScriptParser parser = new ECMAScriptParser(new CommonTokenStream(lexer));
+    lexer.removeErrorListeners();
+    parser.removeErrorListeners();
+    ProgramContext program = parser.program();
+    if (parser.getNumberOfSyntaxErrors() > 0 || program.sourceElements() == null) {
+      // let engine report error, whole script is one statement
+      return new InstrumentedScript(script, Collections.singletonList(new Statement(1, describe(script))));
+    }
+
+    List<Statement> statements = new ArrayList<>();
+    StringBuilder instrumented = new StringBuilder();
+    int copied = 0;
+    for (SourceElementContext element : program.sourceElements().sourceElement()) {
+      // function declarations are hoisted and do nothing at its place
+      if (element.statement() == null || element.statement().emptyStatement() != null) {
+        continue;
+      }
+      Token start = element.getStart();
+      int end = element.getStop().getStopIndex() + 1;
+      instrumented.append(script, copied, start.getStartIndex());
+      // leading semicolon ends previous statement written without one
+      instrumented.append(";if (").append(ScriptProfile.BINDING).append(".enter(").append(statements.size())
+          .append(")) {}");
+      statements.add(new Statement(start.getLine(), describe(script.substring(start.getStartIndex(), end))));
+      copied = start.getStartIndex();
+    }
+    instrumented.append(script, copied, script.length());
+    return new InstrumentedScript(instrumented.toString(), statements);
+  }
+
+  private static String describe(String statement) {
+    String text = statement.trim();
+    int lineEnd = text.indexOf('\n');
+    if (lineEnd >= 0) {
+      text = text.substring(0, lineEnd).trim() + " ...";
+    }
+    if (text.length() > MAX_TEXT_LENGTH) {
+      text = text.substring(0, MAX_TEXT_LENGTH) + "...";
+    }
+    return text;
+  }
+
+  public static class InstrumentedScript {
+    private final String script;
+    private final List<Statement> statements;
+
+    public InstrumentedScript(String script, List<Statement> statements) {
+      this.script = script;
+      this.statements = statements;
+    }
+
+    public String getScript() {
+      return script;
+    }
+
+    public List<Statement> getStatements() {
+      return statements;
+    }
+  }
+}
@@ -0,0 +1,203 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+
+import com.mongodb.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Latency, payload size and errors of commands sent by one client. Together with ping round trip it shows whether
+ * slow query is caused by network, server or client.
+ */
+public class CommandMetrics implements CommandListener, CommandMetricsMXBean {
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  private final String connection;
+  private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+  private final Map<Integer, Long> requestBytes = new ConcurrentHashMap<>();
+  // elapsed time of last command on thread, used to split ping time
+  private final ThreadLocal<Long> lastElapsed = new ThreadLocal<>();
+
+  private final LatencyHistogram roundTrips = new LatencyHistogram();
+  private volatile double roundTripTimeMs;
+  private volatile double checkoutWaitMs;
+
+  private Optional<ObjectName> objectName = Optional.empty();
+
+  public CommandMetrics(String connection) {
+    this.connection = connection;
+  }
+
+  /**
+   * Register as MBean, failure is only logged
+   */
+  public void register() {
+    objectName = MBeans.register(this, "mongofx:type=CommandMetrics,connection=" + ObjectName.quote(connection)
+        + ",id=" + SEQUENCE.incrementAndGet());
+  }
+
+  public void unregister() {
+    objectName.ifPresent(MBeans::unregister);
+    objectName = Optional.empty();
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    requestBytes.put(event.getRequestId(), sizeOf(event.getCommand()));
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+    lastElapsed.set(elapsed);
+    stats(event.getCommandName()).add(elapsed, requestBytes.remove(event.getRequestId()), sizeOf(event.getResponse()),
+        false);
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+    lastElapsed.set(elapsed);
+    stats(event.getCommandName()).add(elapsed, requestBytes.remove(event.getRequestId()), 0, true);
+  }
+
+  private CommandStats stats(String command) {
+    return commands.computeIfAbsent(command, k -> new CommandStats());
+  }
+
+  /**
+   * Send ping and split its time into driver measured round trip and time before command was sent
+   */
+  public void measureRoundTrip(MongoClient client) {
+    lastElapsed.remove();
+    long start = System.nanoTime();
+    client.getDatabase("admin").runCommand(new Document("ping", 1));
+    long total = System.nanoTime() - start;
+    Long elapsed = lastElapsed.get();
+    if (elapsed == null) {
+      // listener not called, e.g. not registered
+      elapsed = total;
+    }
+    synchronized (roundTrips) {
+      roundTrips.record(elapsed);
+    }
+    roundTripTimeMs = CommandSummary.round(elapsed / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    checkoutWaitMs = CommandSummary.round((total - elapsed) / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  static long sizeOf(BsonDocument document) {
+    if (document instanceof RawBsonDocument) {
+      return ((RawBsonDocument) document).getByteBuffer().remaining();
+    }
+    return new RawBsonDocument(document, new BsonDocumentCodec()).getByteBuffer().remaining();
+  }
+
+  @Override
+  public String getConnection() {
+    return connection;
+  }
+
+  @Override
+  public long getCommandCount() {
+    return getCommands().stream().mapToLong(CommandSummary::getCount).sum();
+  }
+
+  @Override
+  public long getErrorCount() {
+    return getCommands().stream().mapToLong(CommandSummary::getErrors).sum();
+  }
+
+  @Override
+  public double getErrorRate() {
+    List<CommandSummary> summaries = getCommands();
+    long count = summaries.stream().mapToLong(CommandSummary::getCount).sum();
+    long errors = summaries.stream().mapToLong(CommandSummary::getErrors).sum();
+    return count == 0 ? 0 : CommandSummary.round(errors * 100.0 / count);
+  }
+
+  @Override
+  public double getRoundTripTimeMs() {
+    return roundTripTimeMs;
+  }
+
+  @Override
+  public double getAverageRoundTripTimeMs() {
+    synchronized (roundTrips) {
+      return CommandSummary.round(roundTrips.getAverageMs());
+    }
+  }
+
+  @Override
+  public double getCheckoutWaitMs() {
+    return checkoutWaitMs;
+  }
+
+  @Override
+  public List<CommandSummary> getCommands() {
+    List<CommandSummary> summaries = new ArrayList<>();
+    commands.forEach((command, stats) -> summaries.add(stats.summary(connection, command)));
+    summaries.sort((a, b) -> a.getCommand().compareTo(b.getCommand()));
+    return summaries;
+  }
+
+  @Override
+  public void reset() {
+    commands.clear();
+  }
+
+  private static class CommandStats {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long errors;
+    private long requestBytes;
+    private long responseBytes;
+
+    private synchronized void add(long elapsedNanos, Long requestBytes, long responseBytes, boolean failed) {
+      latency.record(elapsedNanos);
+      if (failed) {
+        errors++;
+      }
+      if (requestBytes != null) {
+        this.requestBytes += requestBytes;
+      }
+      this.responseBytes += responseBytes;
+    }
+
+    private synchronized CommandSummary summary(String connection, String command) {
+      return new CommandSummary(connection, command, errors, latency, requestBytes, responseBytes);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.List;
+
+/**
+ * Driver command metrics of one connection, registered in platform MBean server
+ */
+public interface CommandMetricsMXBean {
+
+  String getConnection();
+
+  long getCommandCount();
+
+  long getErrorCount();
+
+  /**
+   * @return failed commands in percent
+   */
+  double getErrorRate();
+
+  /**
+   * @return time of last ping measured by driver, network round trip and minimal server work
+   */
+  double getRoundTripTimeMs();
+
+  double getAverageRoundTripTimeMs();
+
+  /**
+   * @return time of last ping spent out of driver command, mostly waiting for pooled connection
+   */
+  double getCheckoutWaitMs();
+
+  List<CommandSummary> getCommands();
+
+  void reset();
+}
@@ -0,0 +1,103 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+/**
+ * Statistics of one command name, all times are rounded to 0.1 ms
+ */
+public class CommandSummary {
+  private final String connection;
+  private final String command;
+  private final long count;
+  private final long errors;
+  private final double averageMs;
+  private final double p50Ms;
+  private final double p95Ms;
+  private final double p99Ms;
+  private final double maxMs;
+  private final long averageRequestBytes;
+  private final long averageResponseBytes;
+
+  CommandSummary(String connection, String command, long errors, LatencyHistogram latency, long requestBytes,
+      long responseBytes) {
+    this.connection = connection;
+    this.command = command;
+    this.count = latency.getCount();
+    this.errors = errors;
+    this.averageMs = round(latency.getAverageMs());
+    this.p50Ms = round(latency.getPercentileMs(50));
+    this.p95Ms = round(latency.getPercentileMs(95));
+    this.p99Ms = round(latency.getPercentileMs(99));
+    this.maxMs = round(latency.getMaxMs());
+    this.averageRequestBytes = count == 0 ? 0 : requestBytes / count;
+    this.averageResponseBytes = count == 0 ? 0 : responseBytes / count;
+  }
+
+  static double round(double ms) {
+    return Math.round(ms * 10) / 10.0;
+  }
+
+  public String getConnection() {
+    return connection;
+  }
+
+  public String getCommand() {
+    return command;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  public double getErrorRate() {
+    return count == 0 ? 0 : round(errors * 100.0 / count);
+  }
+
+  public double getAverageMs() {
+    return averageMs;
+  }
+
+  public double getP50Ms() {
+    return p50Ms;
+  }
+
+  public double getP95Ms() {
+    return p95Ms;
+  }
+
+  public double getP99Ms() {
+    return p99Ms;
+  }
+
+  public double getMaxMs() {
+    return maxMs;
+  }
+
+  public long getAverageRequestBytes() {
+    return averageRequestBytes;
+  }
+
+  public long getAverageResponseBytes() {
+    return averageResponseBytes;
+  }
+}
@@ -0,0 +1,95 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+/**
+ * LRU cache of compiled scripts, key is normalized script text
+ */
+public class CompiledScriptCache {
+  private final Compilable compiler;
+  private final Map<String, CompiledScript> cache;
+
+  public CompiledScriptCache(Compilable compiler, final int maxSize) {
+    this.compiler = compiler;
+    cache = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public CompiledScript compile(String script) throws ScriptException {
+    String key = normalize(script);
+    CompiledScript compiled;
+    synchronized (cache) {
+      compiled = cache.get(key);
+    }
+    if (compiled != null) {
+      return compiled;
+    }
+
+    // compile outside of lock, same script compiled twice is not a problem
+    compiled = compiler.compile(key);
+    synchronized (cache) {
+      cache.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  public boolean contains(String script) {
+    synchronized (cache) {
+      return cache.containsKey(normalize(script));
+    }
+  }
+
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Line endings and trailing whitespaces does not change script, but leading lines are kept to preserve line numbers
+   * in error messages
+   */
+  static String normalize(String script) {
+    String normalized = script.replace("\r\n", "\n");
+    int end = normalized.length();
+    while (end > 0 && Character.isWhitespace(normalized.charAt(end - 1))) {
+      end--;
+    }
+    return normalized.substring(0, end);
+  }
+}
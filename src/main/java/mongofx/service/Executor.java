@@ -18,40 +18,266 @@
 //
 package mongofx.service;
 
-import java.util.concurrent.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.inject.Singleton;
 
+/**
+ * Runs tasks by {@link WorkClass}. Each class has own queue and limit of running tasks, shared classes
+ * compete for limited number of threads which are given to classes in order of priority. Tasks are not rejected: optional
+ * work should use {@link #tryExecute(WorkClass, Runnable)} and is skipped on long queue, other tasks are queued and
+ * callers hold back new work while class is saturated.
+ */
 @Singleton
-public class Executor {
-  private ExecutorService executor = Executors.newSingleThreadExecutor();
-  
-  private ExecutorService multiThreadExecutor = new ThreadPoolExecutor(5, 5,
-      0L, TimeUnit.MILLISECONDS,
-      new LinkedBlockingQueue<>(20), r -> {
-      	Thread t = new Thread(r, "Script eval thread pool");
-      	t.setDaemon(true);
-      	t.setPriority(Thread.NORM_PRIORITY);
-				return t;
-      });
+public class Executor implements ExecutorMXBean {
+  private static final Logger log = LoggerFactory.getLogger(Executor.class);
+
+  // threads for all shared classes
+  public static final int SHARED_LIMIT = 10;
+  // concurrent tree loads of one connection
+  public static final int LOAD_LANE_SIZE = 2;
+  private static final long SLOW_START_MS = 1000;
+
+  private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+    Thread t = new Thread(r, "Worker");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final Map<WorkClass, WorkQueue> queues = new EnumMap<>(WorkClass.class);
+  private int sharedRunning = 0;
+  private boolean stopped = false;
+
+  private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "Scheduler");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final Set<LoadLane> loadLanes = ConcurrentHashMap.newKeySet();
+  private Optional<ObjectName> objectName = Optional.empty();
+  private final List<BiConsumer<WorkClass, Boolean>> saturationListeners = new CopyOnWriteArrayList<>();
+
+  public Executor() {
+    for (WorkClass workClass : WorkClass.values()) {
+      queues.put(workClass, new WorkQueue());
+    }
+  }
+
+  /**
+   * Task waits in queue of its class until thread is available, also when queue is longer than its limit
+   */
+  public synchronized void execute(WorkClass workClass, Runnable r) {
+    if (stopped) {
+      throw new RejectedExecutionException("Executor is stopped");
+    }
+    WorkQueue queue = queues.get(workClass);
+    queue.tasks.add(new QueuedTask(r));
+    queue.maxQueued = Math.max(queue.maxQueued, queue.tasks.size());
+    dispatch();
+  }
+
+  /**
+   * Execute task which may be skipped, e.g. prefetch
+   *
+   * @return false if task skipped because queue of class is longer than its limit
+   */
+  public synchronized boolean tryExecute(WorkClass workClass, Runnable r) {
+    WorkQueue queue = queues.get(workClass);
+    if (stopped || queue.tasks.size() >= workClass.getQueueLimit()) {
+      queue.skipped++;
+      return false;
+    }
+    execute(workClass, r);
+    return true;
+  }
+
+  private void dispatch() {
+    for (WorkClass workClass : WorkClass.values()) {
+      WorkQueue queue = queues.get(workClass);
+      while (!queue.tasks.isEmpty() && queue.running < workClass.getLimit()
+          && (!workClass.isShared() || sharedRunning < SHARED_LIMIT)) {
+        QueuedTask task = queue.tasks.poll();
+        queue.running++;
+        if (workClass.isShared()) {
+          sharedRunning++;
+        }
+        workers.execute(() -> run(workClass, task));
+      }
+      boolean saturated = queue.tasks.size() >= workClass.getQueueLimit();
+      if (saturated != queue.saturated) {
+        queue.saturated = saturated;
+        saturationListeners.forEach(l -> l.accept(workClass, saturated));
+      }
+    }
+  }
+
+  private void run(WorkClass workClass, QueuedTask task) {
+    Thread thread = Thread.currentThread();
+    thread.setName("Worker " + workClass.name().toLowerCase());
+    thread.setPriority(workClass.getThreadPriority());
+    long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.queuedAt);
+    if (waitMs > SLOW_START_MS) {
+      log.debug("{} task waited {} ms in queue", workClass, waitMs);
+    }
+    try {
+      task.runnable.run();
+    }
+    catch (RuntimeException e) {
+      log.warn("Error in {} task", workClass, e);
+    }
+    finally {
+      // cancelled task should not interrupt next one
+      Thread.interrupted();
+      synchronized (this) {
+        WorkQueue queue = queues.get(workClass);
+        queue.running--;
+        queue.completed++;
+        queue.waitMs += waitMs;
+        if (workClass.isShared()) {
+          sharedRunning--;
+        }
+        if (!stopped) {
+          dispatch();
+        }
+      }
+    }
+  }
+
+  public synchronized int getQueued(WorkClass workClass) {
+    return queues.get(workClass).tasks.size();
+  }
+
+  public synchronized int getRunning(WorkClass workClass) {
+    return queues.get(workClass).running;
+  }
+
+  public synchronized long getCompleted(WorkClass workClass) {
+    return queues.get(workClass).completed;
+  }
+
+  /**
+   * @return optional tasks not executed because of long queue
+   */
+  public synchronized long getSkipped(WorkClass workClass) {
+    return queues.get(workClass).skipped;
+  }
+
+  public synchronized int getMaxQueued(WorkClass workClass) {
+    return queues.get(workClass).maxQueued;
+  }
+
+  /**
+   * @return average time completed tasks waited in queue
+   */
+  public synchronized long getAverageWaitMs(WorkClass workClass) {
+    WorkQueue queue = queues.get(workClass);
+    return queue.completed == 0 ? 0 : queue.waitMs / queue.completed;
+  }
+
+  /**
+   * @return true if queue of class reached its limit, new work should wait
+   */
+  public synchronized boolean isSaturated(WorkClass workClass) {
+    return queues.get(workClass).saturated;
+  }
+
+  /**
+   * Listener is called with class and its new state when class becomes saturated or drains, it is called under
+   * executor lock and must not block
+   */
+  public void addSaturationListener(BiConsumer<WorkClass, Boolean> listener) {
+    saturationListeners.add(listener);
+  }
 
-  private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  @Override
+  public synchronized List<WorkClassSummary> getWorkClasses() {
+    List<WorkClassSummary> summaries = new ArrayList<>();
+    for (WorkClass workClass : WorkClass.values()) {
+      WorkQueue queue = queues.get(workClass);
+      summaries.add(new WorkClassSummary(workClass, queue.running, queue.tasks.size(), queue.maxQueued,
+          queue.completed, queue.skipped, queue.saturated, getAverageWaitMs(workClass)));
+    }
+    return summaries;
+  }
+
+  @Override
+  public synchronized int getSharedRunning() {
+    return sharedRunning;
+  }
 
-  public void execute(Runnable r) {
-    executor.execute(r);
+  /**
+   * Register as MBean, failure is only logged
+   */
+  public void register() {
+    objectName = MBeans.register(this, "mongofx:type=Executor");
   }
-  
-  public void executeMany(Runnable r) {
-  	multiThreadExecutor.execute(r);
+
+  /**
+   * Separate executor for loads of one connection, should be released with {@link #releaseLoadLane(LoadLane)}
+   */
+  public LoadLane createLoadLane(String name) {
+    LoadLane lane = new LoadLane(name, LOAD_LANE_SIZE);
+    loadLanes.add(lane);
+    return lane;
+  }
+
+  public void releaseLoadLane(LoadLane lane) {
+    lane.shutdown();
+    loadLanes.remove(lane);
   }
 
   public void stop() {
-    executor.shutdownNow();
-    multiThreadExecutor.shutdownNow();
+    objectName.ifPresent(MBeans::unregister);
+    synchronized (this) {
+      stopped = true;
+      queues.values().forEach(q -> q.tasks.clear());
+    }
+    workers.shutdownNow();
+    loadLanes.forEach(LoadLane::shutdown);
     scheduler.shutdownNow();
   }
 
   public ScheduledFuture<?> schedule(Runnable c, long time, TimeUnit unit) {
     return scheduler.schedule(c, time, unit);
   }
+
+  private static class WorkQueue {
+    private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+    private int running;
+    private int maxQueued;
+    private long completed;
+    private long skipped;
+    private long waitMs;
+    private boolean saturated;
+  }
+
+  private static class QueuedTask {
+    private final Runnable runnable;
+    private final long queuedAt = System.nanoTime();
+
+    public QueuedTask(Runnable runnable) {
+      this.runnable = runnable;
+    }
+  }
 }
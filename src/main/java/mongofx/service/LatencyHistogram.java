@@ -0,0 +1,78 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram with power of two buckets in microseconds, percentiles are accurate within factor of two. Not
+ * thread safe.
+ */
+public class LatencyHistogram {
+  private static final int BUCKETS = 32;
+
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+  private long totalNanos;
+  private long maxNanos;
+
+  public void record(long nanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+    int bucket = micros == 0 ? 0 : Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    counts[bucket]++;
+    count++;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getAverageMs() {
+    return count == 0 ? 0 : toMs(totalNanos / count);
+  }
+
+  public double getMaxMs() {
+    return toMs(maxNanos);
+  }
+
+  /**
+   * @param percentile from 0 to 100
+   * @return upper bound of bucket containing percentile, but not more than max value
+   */
+  public double getPercentileMs(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(count * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(toMs(TimeUnit.MICROSECONDS.toNanos(1L << (i + 1))), getMaxMs());
+      }
+    }
+    return getMaxMs();
+  }
+
+  private static double toMs(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
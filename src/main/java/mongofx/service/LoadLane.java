@@ -0,0 +1,85 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads of one connection, slow or unreachable server blocks only own lane. Latest submitted load runs first, so
+ * node clicked last is not waiting for previously queued ones.
+ */
+public class LoadLane {
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong sequence = new AtomicLong();
+
+  LoadLane(String name, int threads) {
+    executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new PriorityBlockingQueue<>(), r -> {
+          Thread t = new Thread(r, name);
+          t.setDaemon(true);
+          return t;
+        });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  public void execute(Runnable r) {
+    executor.execute(new PrioritizedTask(r, sequence.incrementAndGet()));
+  }
+
+  /**
+   * @return loads waiting for free thread
+   */
+  public int getQueued() {
+    return executor.getQueue().size();
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public boolean isShutdown() {
+    return executor.isShutdown();
+  }
+
+  private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+    private final Runnable task;
+    private final long sequence;
+
+    public PrioritizedTask(Runnable task, long sequence) {
+      this.task = task;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public void run() {
+      task.run();
+    }
+
+    @Override
+    public int compareTo(PrioritizedTask o) {
+      // newer first
+      return Long.compare(o.sequence, sequence);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registration of MBeans in platform MBean server, failures are only logged
+ */
+class MBeans {
+  private static final Logger log = LoggerFactory.getLogger(MBeans.class);
+
+  private MBeans() {
+  }
+
+  static Optional<ObjectName> register(Object mbean, String name) {
+    try {
+      ObjectName objectName = new ObjectName(name);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+      return Optional.of(objectName);
+    }
+    catch (JMException e) {
+      log.warn("Can't register MBean {}", name, e);
+      return Optional.empty();
+    }
+  }
+
+  static void unregister(ObjectName objectName) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+    catch (JMException e) {
+      log.debug("Can't unregister MBean {}", objectName, e);
+    }
+  }
+}
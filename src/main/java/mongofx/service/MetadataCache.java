@@ -0,0 +1,209 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoClient;
+
+/**
+ * Metadata of one connection: databases, collections, indexes and collection stats. Expired values are returned
+ * while they are refreshed in background, DDL operations should invalidate affected entries.
+ */
+public class MetadataCache {
+  private static final Logger log = LoggerFactory.getLogger(MetadataCache.class);
+
+  private static final long DATABASES_TTL = TimeUnit.SECONDS.toNanos(60);
+  private static final long COLLECTIONS_TTL = TimeUnit.SECONDS.toNanos(30);
+  private static final long INDEXES_TTL = TimeUnit.SECONDS.toNanos(60);
+  private static final long STATS_TTL = TimeUnit.SECONDS.toNanos(30);
+
+  private static final String DATABASES_KEY = "databases";
+  private static final String COLLECTIONS_PREFIX = "collections:";
+  private static final String INDEXES_PREFIX = "indexes:";
+  private static final String STATS_PREFIX = "stats:";
+
+  private final MongoClient client;
+  private final Executor executor;
+  private final Map<String, CacheEntry<?>> entries = new ConcurrentHashMap<>();
+  // changed on invalidation of key, values loaded before it are not kept
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  public MetadataCache(MongoClient client, Executor executor) {
+    this.client = client;
+    this.executor = executor;
+  }
+
+  public List<String> getDatabaseNames() {
+    return get(DATABASES_KEY, DATABASES_TTL,
+        () -> Collections.unmodifiableList(StreamSupport.stream(client.listDatabaseNames().spliterator(), false)
+            .collect(Collectors.toList())));
+  }
+
+  public List<String> getCollectionNames(String dbName) {
+    return get(COLLECTIONS_PREFIX + dbName, COLLECTIONS_TTL,
+        () -> Collections.unmodifiableList(StreamSupport.stream(client.getDatabase(dbName).listCollectionNames().spliterator(), false)
+            .collect(Collectors.toList())));
+  }
+
+  /**
+   * @return collection names if already cached, server is not called
+   */
+  @SuppressWarnings("unchecked")
+  public Optional<List<String>> peekCollectionNames(String dbName) {
+    CacheEntry<List<String>> entry = (CacheEntry<List<String>>) entries.get(COLLECTIONS_PREFIX + dbName);
+    return entry != null ? Optional.of(entry.value) : Optional.empty();
+  }
+
+  public List<Document> getIndexes(String dbName, String collectionName) {
+    return get(INDEXES_PREFIX + dbName + "." + collectionName, INDEXES_TTL,
+        () -> Collections.unmodifiableList(StreamSupport.stream(
+            client.getDatabase(dbName).getCollection(collectionName).listIndexes().spliterator(), false)
+            .collect(Collectors.toList())));
+  }
+
+  /**
+   * @return result of collStats command
+   */
+  public Document getCollectionStats(String dbName, String collectionName) {
+    return get(STATS_PREFIX + dbName + "." + collectionName, STATS_TTL,
+        () -> client.getDatabase(dbName).runCommand(new BasicDBObject("collStats", collectionName)));
+  }
+
+  public void invalidateDatabases() {
+    invalidate(key -> true);
+  }
+
+  public void invalidateCollectionNames(String dbName) {
+    invalidate(key -> key.equals(COLLECTIONS_PREFIX + dbName));
+  }
+
+  /**
+   * Collections, indexes and stats of database
+   */
+  public void invalidateDatabase(String dbName) {
+    invalidate(key -> key.equals(COLLECTIONS_PREFIX + dbName) || key.startsWith(INDEXES_PREFIX + dbName + ".")
+        || key.startsWith(STATS_PREFIX + dbName + "."));
+  }
+
+  /**
+   * Indexes and stats of collection
+   */
+  public void invalidateCollection(String dbName, String collectionName) {
+    String suffix = dbName + "." + collectionName;
+    invalidate(key -> key.equals(INDEXES_PREFIX + suffix) || key.equals(STATS_PREFIX + suffix));
+  }
+
+  public void invalidateCollectionStats(String dbName, String collectionName) {
+    invalidate(key -> key.equals(STATS_PREFIX + dbName + "." + collectionName));
+  }
+
+  /**
+   * Generations of keys are changed before entries are removed, load stores value first and then checks generation
+   */
+  private void invalidate(Predicate<String> keyFilter) {
+    generations.forEach((key, generation) -> {
+      if (keyFilter.test(key)) {
+        generation.incrementAndGet();
+      }
+    });
+    entries.keySet().removeIf(keyFilter);
+  }
+
+  private AtomicLong generation(String key) {
+    return generations.computeIfAbsent(key, k -> new AtomicLong());
+  }
+
+  /**
+   * Entry is removed again if key was invalidated while value was loading
+   */
+  private void keepIfValid(String key, long loadGeneration, CacheEntry<?> stored) {
+    if (generation(key).get() != loadGeneration) {
+      entries.remove(key, stored);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T get(String key, long ttlNanos, Supplier<T> loader) {
+    CacheEntry<T> entry = (CacheEntry<T>) entries.get(key);
+    if (entry == null) {
+      long loadGeneration = generation(key).get();
+      T value = loader.get();
+      CacheEntry<T> loaded = new CacheEntry<>(value);
+      entries.put(key, loaded);
+      keepIfValid(key, loadGeneration, loaded);
+      return value;
+    }
+
+    if (entry.isExpired(ttlNanos) && entry.refreshing.compareAndSet(false, true)) {
+      if (!executor.tryExecute(WorkClass.BACKGROUND, () -> refresh(key, entry, loader))) {
+        entry.refreshing.set(false);
+      }
+    }
+    return entry.value;
+  }
+
+  private <T> void refresh(String key, CacheEntry<T> entry, Supplier<T> loader) {
+    try {
+      long loadGeneration = generation(key).get();
+      T value = loader.get();
+      // entry may be invalidated while loading
+      CacheEntry<T> loaded = new CacheEntry<>(value);
+      if (entries.replace(key, entry, loaded)) {
+        keepIfValid(key, loadGeneration, loaded);
+      }
+    }
+    catch (RuntimeException e) {
+      log.warn("Can't refresh metadata {}", key, e);
+    }
+    finally {
+      entry.refreshing.set(false);
+    }
+  }
+
+  private static class CacheEntry<T> {
+    private final T value;
+    private final long loadTime = System.nanoTime();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public CacheEntry(T value) {
+      this.value = value;
+    }
+
+    public boolean isExpired(long ttlNanos) {
+      return System.nanoTime() - loadTime > ttlNanos;
+    }
+  }
+}
@@ -19,33 +19,142 @@
 package mongofx.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
 
 public class MongoConnection {
+  private static final Logger log = LoggerFactory.getLogger(MongoConnection.class);
+  private static final long PING_INTERVAL_SEC = 10;
 
   private final MongoClient client;
+  private final CommandMetrics commandMetrics;
+  private final MetadataCache metadataCache;
+  private final Executor executor;
+  private final LoadLane loadLane;
+
+  private volatile boolean closed = false;
+  private volatile ScheduledFuture<?> nextPing;
 
-  public MongoConnection(MongoClient client) {
+  public MongoConnection(MongoClient client, CommandMetrics commandMetrics, Executor executor) {
     this.client = client;
+    this.commandMetrics = commandMetrics;
+    this.executor = executor;
+    this.metadataCache = new MetadataCache(client, executor);
+    this.loadLane = executor.createLoadLane("Tree loader");
+    schedulePing();
+  }
+
+  private void schedulePing() {
+    try {
+      nextPing = executor.schedule(() -> {
+        // background queue is full, try on next interval
+        if (!closed && !executor.tryExecute(WorkClass.BACKGROUND, this::ping)) {
+          schedulePing();
+        }
+      }, PING_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+    catch (RejectedExecutionException e) {
+      // application is stopping
+      log.debug("Ping not scheduled", e);
+    }
+  }
+
+  private void ping() {
+    try {
+      commandMetrics.measureRoundTrip(client);
+    }
+    catch (MongoException | IllegalStateException e) {
+      log.debug("Ping failed", e);
+    }
+    finally {
+      if (!closed) {
+        schedulePing();
+      }
+    }
   }
 
   public List<MongoDatabase> listDbs() {
-    return StreamSupport.stream(client.listDatabaseNames().spliterator(), false).map(n -> createMongoDB(n))
-        .collect(Collectors.toList());
+    return metadataCache.getDatabaseNames().stream().map(n -> createMongoDB(n)).collect(Collectors.toList());
   }
 
   public MongoDatabase createMongoDB(String name) {
-    return new MongoDatabase(client, name);
+    return new MongoDatabase(this, name);
+  }
+
+  public MetadataCache getMetadataCache() {
+    return metadataCache;
+  }
+
+  /**
+   * Executor of tree loads of this connection
+   */
+  public LoadLane getLoadLane() {
+    return loadLane;
+  }
+
+  public CommandMetrics getCommandMetrics() {
+    return commandMetrics;
   }
 
   public MongoClient getClient() {
     return client;
   }
 
+  /**
+   * Kill operations in progress which contain comment, e.g. tag of stopped script. Requires inprog and killop
+   * privileges.
+   *
+   * @return number of killed operations
+   */
+  public int killOperations(String comment) {
+    com.mongodb.client.MongoDatabase admin = client.getDatabase("admin");
+    Object inprog = admin.runCommand(new Document("currentOp", 1)).get("inprog");
+    if (!(inprog instanceof List)) {
+      return 0;
+    }
+    int killed = 0;
+    for (Object op : (List<?>) inprog) {
+      // shape of operation depends on server version, so comment is searched in whole document
+      if (op instanceof Document && containsValue(op, comment)) {
+        admin.runCommand(new Document("killOp", 1).append("op", ((Document) op).get("opid")));
+        killed++;
+      }
+    }
+    return killed;
+  }
+
+  private static boolean containsValue(Object value, String expected) {
+    if (value instanceof Map) {
+      return ((Map<?, ?>) value).values().stream().anyMatch(v -> containsValue(v, expected));
+    }
+    if (value instanceof List) {
+      return ((List<?>) value).stream().anyMatch(v -> containsValue(v, expected));
+    }
+    return expected.equals(value);
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
   public void close() {
+    closed = true;
+    ScheduledFuture<?> ping = nextPing;
+    if (ping != null) {
+      ping.cancel(false);
+    }
+    commandMetrics.unregister();
+    executor.releaseLoadLane(loadLane);
     client.close();
   }
 }
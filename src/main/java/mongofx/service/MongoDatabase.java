@@ -19,16 +19,19 @@
 package mongofx.service;
 
 import java.util.List;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
-
-import com.mongodb.MongoClient;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.operation.OperationExecutor;
+
+import mongofx.driver.DocumentSizeStats;
+import mongofx.driver.OperationExecutorAccess;
 
+import mongofx.js.api.Collection;
 import mongofx.js.api.JsApiUtils;
 import mongofx.js.api.ObjectListPresentation;
 
@@ -38,47 +41,98 @@ import mongofx.js.api.ObjectListPresentation;
  */
 public class MongoDatabase {
   private final com.mongodb.client.MongoDatabase mongoDb;
-  private List<String> cachedCollectionNames;
-  private MongoClient client;
-
-  public MongoDatabase(MongoClient client, String name) {
-    this.client = client;
-    mongoDb = client.getDatabase(name);
+  private final Map<String, Collection> collectionHandles = new ConcurrentHashMap<>();
+  private final Map<String, DocumentSizeStats> documentSizes = new ConcurrentHashMap<>();
+  private final MongoConnection connection;
+  private final MetadataCache metadataCache;
+  private volatile OperationExecutor operationExecutor;
+
+  public MongoDatabase(MongoConnection connection, String name) {
+    this.connection = connection;
+    this.metadataCache = connection.getMetadataCache();
+    mongoDb = connection.getClient().getDatabase(name);
   }
 
   public MongoDatabase getSiblingDB(String name) {
-    return new MongoDatabase(client, name);
+    return connection.createMongoDB(name);
+  }
+
+  public MongoConnection getMongoConnection() {
+    return connection;
   }
 
   public String getName() {
     return mongoDb.getName();
   }
 
+  /**
+   * Collection names from connection metadata cache, may be stale up to cache TTL
+   */
   public List<String> getCachedCollections() {
-    if (cachedCollectionNames != null) {
-      return cachedCollectionNames;
-    }
-    return listCollections();
+    return metadataCache.getCollectionNames(getName());
+  }
+
+  /**
+   * @return collection names if already cached, no server call
+   */
+  public Optional<List<String>> peekCachedCollections() {
+    return metadataCache.peekCollectionNames(getName());
   }
 
   /**
-   * also reload cache
+   * Collection names read from server, indexes and stats stay cached
    */
   public List<String> listCollections() {
-    cachedCollectionNames = StreamSupport.stream(mongoDb.listCollectionNames().spliterator(), false).collect(Collectors.toList());
-    return cachedCollectionNames;
+    metadataCache.invalidateCollectionNames(getName());
+    return metadataCache.getCollectionNames(getName());
+  }
+
+  /**
+   * Indexes of collection from connection metadata cache
+   */
+  public List<Document> listIndexes(String collectionName) {
+    return metadataCache.getIndexes(getName(), collectionName);
+  }
+
+  /**
+   * JS API handle of collection, created on first access and kept until collections changed
+   */
+  public Collection getCollectionHandle(String name) {
+    return collectionHandles.computeIfAbsent(name, n -> new Collection(this, n));
+  }
+
+  /**
+   * Average document size of collection, known from stats or previous queries
+   */
+  public DocumentSizeStats getDocumentSizeStats(String collectionName) {
+    return documentSizes.computeIfAbsent(collectionName, n -> new DocumentSizeStats());
+  }
+
+  public boolean isCollectionHandleCached(String name) {
+    return collectionHandles.containsKey(name);
+  }
+
+  /**
+   * Drop cached collection names and handles, should be called after create/drop/rename of collection
+   */
+  public void invalidateCollections() {
+    metadataCache.invalidateDatabase(getName());
+    collectionHandles.clear();
   }
 
   /**
-   * also reload cache
+   * Drop cached indexes and stats of collection, should be called after index or data changes
    */
-  public List<CollectionDetails> listCollectionDetails() {
-    return listCollections().stream().map(this::getCollectionDetail).collect(Collectors.toList());
+  public void invalidateCollection(String collectionName) {
+    metadataCache.invalidateCollection(getName(), collectionName);
   }
 
-  private CollectionDetails getCollectionDetail(String collectionName) {
-    BasicDBObject command = new BasicDBObject("collStats", collectionName);
-    Document stats = mongoDb.runCommand(command);
+  public CollectionDetails getCollectionDetails(String collectionName) {
+    Document stats = metadataCache.getCollectionStats(getName(), collectionName);
+    Object avgObjSize = stats.get("avgObjSize");
+    if (avgObjSize instanceof Number) {
+      getDocumentSizeStats(collectionName).seed(((Number) avgObjSize).intValue());
+    }
     return new CollectionDetails(collectionName,
             ((Number)stats.get("count")).intValue(),
             ((Number)stats.get("storageSize")).intValue(),
@@ -90,6 +144,16 @@ public class MongoDatabase {
     return mongoDb;
   }
 
+  /**
+   * Executor of driver operations, used to run operations which driver API does not provide
+   */
+  public OperationExecutor getOperationExecutor() {
+    if (operationExecutor == null) {
+      operationExecutor = OperationExecutorAccess.get(mongoDb);
+    }
+    return operationExecutor;
+  }
+
   @Override
   public String toString() {
     return getName();
@@ -97,22 +161,28 @@ public class MongoDatabase {
 
   public void createCollection(String name) {
     mongoDb.createCollection(name);
+    invalidateCollections();
   }
 
   public void dropCollection(String name) {
     mongoDb.getCollection(name).drop();
+    invalidateCollections();
   }
 
   public void drop() {
     mongoDb.drop();
+    invalidateCollections();
+    metadataCache.invalidateDatabases();
   }
 
   public void removeAllDocuments(String collectionName) {
     mongoDb.getCollection(collectionName).deleteMany(new BasicDBObject());
+    metadataCache.invalidateCollectionStats(getName(), collectionName);
   }
 
   public void dropIndex(String collectionName, String indexName) {
     mongoDb.getCollection(collectionName).dropIndex(indexName);
+    invalidateCollection(collectionName);
   }
 
   public ObjectListPresentation runCommand(Bson command) {
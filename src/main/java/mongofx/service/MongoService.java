@@ -18,6 +18,10 @@
 //
 package mongofx.service;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
@@ -29,6 +33,11 @@ import mongofx.service.settings.ConnectionSettings;
 @Singleton
 public class MongoService {
 
+  @Inject
+  private Executor executor;
+
+  private final List<MongoConnection> connections = new CopyOnWriteArrayList<>();
+
   public MongoDbConnection connect(ConnectionSettings connectionSettings) {
     StringBuilder authString = new StringBuilder();
 
@@ -42,12 +51,26 @@ public class MongoService {
       authString.append("@");
     }
     String uri = String.format("mongodb://%s%s", authString, connectionSettings.getHost());
-    Builder options = MongoClientOptions.builder().serverSelectionTimeout(10000);
+    CommandMetrics metrics = new CommandMetrics(connectionSettings.getHost());
+    Builder options = MongoClientOptions.builder().serverSelectionTimeout(10000)
+        .addCommandListener(new ProfilingCommandListener())
+        .addCommandListener(metrics);
     MongoClient client = new MongoClient(new MongoClientURI(uri, options));
-    MongoConnection mongoConnection = new MongoConnection(client);
+    metrics.register();
+    MongoConnection mongoConnection = new MongoConnection(client, metrics, executor);
+    connections.removeIf(MongoConnection::isClosed);
+    connections.add(mongoConnection);
     return new MongoDbConnection(mongoConnection, connectionSettings);
   }
 
+  /**
+   * @return connections which are not closed yet
+   */
+  public List<MongoConnection> getConnections() {
+    connections.removeIf(MongoConnection::isClosed);
+    return connections;
+  }
+
   public void stop() {
   }
 
@@ -0,0 +1,178 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.client.MongoCursor;
+
+/**
+ * Operations issued by one script run. Filters are tagged with unique $comment so operations can be found and killed
+ * on server. After cancel open cursors are closed and script stops on next API call.
+ */
+public class OperationContext {
+  private static final Logger log = LoggerFactory.getLogger(OperationContext.class);
+
+  private static final String COMMENT = "$comment";
+  private static final String MATCH = "$match";
+  // stages which must be first in pipeline
+  private static final List<String> FIRST_STAGES = Arrays.asList("$geoNear", "$collStats", "$indexStats");
+
+  private static final OperationContext DETACHED = new OperationContext(null, null);
+  private static final ThreadLocal<OperationContext> CURRENT = new ThreadLocal<>();
+
+  private final String tag;
+  private final Long defaultMaxTimeMS;
+  private final Set<MongoCursor<?>> cursors = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+  private volatile boolean cancelled = false;
+  private volatile ScriptProfile profile;
+
+  private OperationContext(String tag, Long defaultMaxTimeMS) {
+    this.tag = tag;
+    this.defaultMaxTimeMS = defaultMaxTimeMS;
+  }
+
+  /**
+   * @param defaultMaxTimeMS applied to queries without own maxTimeMS, may be null
+   */
+  public static OperationContext create(Long defaultMaxTimeMS) {
+    return new OperationContext("mongofx-" + UUID.randomUUID(), defaultMaxTimeMS);
+  }
+
+  /**
+   * @return context attached to current thread, or context which does not tag operations
+   */
+  public static OperationContext current() {
+    OperationContext context = CURRENT.get();
+    return context != null ? context : DETACHED;
+  }
+
+  public void attach() {
+    CURRENT.set(this);
+  }
+
+  public void detach() {
+    CURRENT.remove();
+  }
+
+  public Optional<String> getTag() {
+    return Optional.ofNullable(tag);
+  }
+
+  public Optional<Long> getDefaultMaxTimeMS() {
+    return Optional.ofNullable(defaultMaxTimeMS);
+  }
+
+  /**
+   * @return profile collecting server calls of this run, if profiling is on
+   */
+  public Optional<ScriptProfile> getProfile() {
+    return Optional.ofNullable(profile);
+  }
+
+  public void setProfile(ScriptProfile profile) {
+    this.profile = profile;
+  }
+
+  /**
+   * @return copy of filter with tag, same filter if context has no tag or filter has own comment
+   */
+  public BasicDBObject tag(BasicDBObject filter) {
+    if (tag == null || filter.containsField(COMMENT)) {
+      return filter;
+    }
+    BasicDBObject tagged = new BasicDBObject(filter);
+    tagged.put(COMMENT, tag);
+    return tagged;
+  }
+
+  /**
+   * Tag is added to first $match stage, or new $match stage is added at start of pipeline
+   */
+  public List<BasicDBObject> tag(List<BasicDBObject> pipeline) {
+    if (tag == null) {
+      return pipeline;
+    }
+    List<BasicDBObject> tagged = new ArrayList<>(pipeline);
+    if (!pipeline.isEmpty()) {
+      BasicDBObject first = pipeline.get(0);
+      if (first.get(MATCH) instanceof BasicDBObject) {
+        tagged.set(0, new BasicDBObject(MATCH, tag((BasicDBObject) first.get(MATCH))));
+        return tagged;
+      }
+      if (first.keySet().stream().anyMatch(FIRST_STAGES::contains)) {
+        return pipeline;
+      }
+    }
+    tagged.add(0, new BasicDBObject(MATCH, new BasicDBObject(COMMENT, tag)));
+    return tagged;
+  }
+
+  /**
+   * Cursor is closed on cancel
+   */
+  public <T> MongoCursor<T> track(MongoCursor<T> cursor) {
+    if (tag != null) {
+      cursors.add(cursor);
+    }
+    return cursor;
+  }
+
+  /**
+   * Should be called before server calls of script
+   */
+  public void checkCancelled() {
+    if (cancelled) {
+      throw new CancellationException("Script stopped");
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  public void cancel() {
+    cancelled = true;
+    List<MongoCursor<?>> open;
+    synchronized (cursors) {
+      open = new ArrayList<>(cursors);
+      cursors.clear();
+    }
+    for (MongoCursor<?> cursor : open) {
+      try {
+        cursor.close();
+      }
+      catch (RuntimeException e) {
+        log.debug("Can't close cursor", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Reports commands to profile of script run on current thread, commands of other threads are ignored
+ */
+public class ProfilingCommandListener implements CommandListener {
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    OperationContext.current().getProfile()
+        .ifPresent(profile -> profile.commandStarted(event.getRequestId(), event.getCommandName(), event.getCommand()));
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    OperationContext.current().getProfile().ifPresent(profile -> profile.commandSucceeded(event.getRequestId(),
+        event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), event.getResponse()));
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    OperationContext.current().getProfile().ifPresent(profile -> profile.commandFailed(event.getRequestId(),
+        event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS)));
+  }
+}
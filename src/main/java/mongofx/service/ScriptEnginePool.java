@@ -0,0 +1,170 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.LinkedList;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of script engines, one per eval thread, so concurrent tabs do not share engine state
+ */
+public class ScriptEnginePool {
+  private static final Logger log = LoggerFactory.getLogger(ScriptEnginePool.class);
+  private static final String WARM_UP_SCRIPT =
+      "(function(o) { var r = []; for (var k in o) { r.push(k + '=' + JSON.stringify(o[k])); } return r.join(','); })"
+      + "({a: 1, b: 'str', c: [1, 2, {d: true}]})";
+
+  private final ScriptEngineManager engineManager = new ScriptEngineManager();
+  private final String engineName;
+  private final int poolSize;
+  private final int compiledCacheSize;
+
+  private final LinkedList<PooledEngine> idle = new LinkedList<>();
+  private int created = 0;
+  private final AtomicInteger warmedUp = new AtomicInteger();
+
+  public ScriptEnginePool(String engineName, int poolSize, int compiledCacheSize) {
+    this.engineName = engineName;
+    this.poolSize = poolSize;
+    this.compiledCacheSize = compiledCacheSize;
+  }
+
+  /**
+   * Create and warm all engines of pool, supposed to be called in background on startup
+   */
+  public void warmUp() {
+    long start = System.currentTimeMillis();
+    while (true) {
+      synchronized (idle) {
+        if (created >= poolSize) {
+          break;
+        }
+        created++;
+      }
+      release(createEngine());
+    }
+    log.info("Script engine pool warmed up: {} engines in {} ms", poolSize, System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Take idle engine, engine already compiled this script preferred
+   */
+  public PooledEngine acquire(String script) throws InterruptedException {
+    synchronized (idle) {
+      while (true) {
+        Optional<PooledEngine> engine = pollIdle(script);
+        if (engine.isPresent()) {
+          return engine.get();
+        }
+        if (created < poolSize) {
+          created++;
+          break;
+        }
+        idle.wait();
+      }
+    }
+    return createEngine();
+  }
+
+  /**
+   * Same as {@link #acquire(String)} but does not wait and does not create new engines
+   */
+  public Optional<PooledEngine> tryAcquire(String script) {
+    synchronized (idle) {
+      return pollIdle(script);
+    }
+  }
+
+  public void release(PooledEngine engine) {
+    synchronized (idle) {
+      idle.addFirst(engine);
+      idle.notifyAll();
+    }
+  }
+
+  private Optional<PooledEngine> pollIdle(String script) {
+    if (idle.isEmpty()) {
+      return Optional.empty();
+    }
+    for (PooledEngine engine : idle) {
+      if (engine.compiledScripts.contains(script)) {
+        idle.remove(engine);
+        return Optional.of(engine);
+      }
+    }
+    return Optional.of(idle.removeFirst());
+  }
+
+  private PooledEngine createEngine() {
+    ScriptEngine engine = engineManager.getEngineByName(engineName);
+    PooledEngine pooledEngine = new PooledEngine(engine, new CompiledScriptCache((Compilable)engine, compiledCacheSize));
+    try {
+      engine.eval(WARM_UP_SCRIPT);
+      warmedUp.incrementAndGet();
+    }
+    catch (ScriptException e) {
+      log.warn("Script engine warm up failed", e);
+    }
+    return pooledEngine;
+  }
+
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  public int getWarmedUpCount() {
+    return warmedUp.get();
+  }
+
+  public boolean isWarmedUp() {
+    return warmedUp.get() >= poolSize;
+  }
+
+  public static class PooledEngine {
+    private final ScriptEngine engine;
+    private final CompiledScriptCache compiledScripts;
+
+    private PooledEngine(ScriptEngine engine, CompiledScriptCache compiledScripts) {
+      this.engine = engine;
+      this.compiledScripts = compiledScripts;
+    }
+
+    public CompiledScript compile(String script) throws ScriptException {
+      return compiledScripts.compile(script);
+    }
+
+    public boolean isCompiled(String script) {
+      return compiledScripts.contains(script);
+    }
+
+    public ScriptEngine getEngine() {
+      return engine;
+    }
+  }
+}
@@ -0,0 +1,267 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Wall time of script run by top level statement and traffic of every API call (find, aggregate, update...) sent to
+ * server while statement was running. Statements are entered from instrumented script, server calls are reported by
+ * command listener on eval thread.
+ */
+public class ScriptProfile {
+  /**
+   * Name of profile in script bindings
+   */
+  public static final String BINDING = "__profiler";
+
+  private static final String RESULT_LOADING = "(result loading)";
+
+  private final List<Statement> statements;
+  // by statement index, result loading is the last one
+  private final Map<Integer, Stats> statementStats = new LinkedHashMap<>();
+  private final Map<Integer, Map<String, Stats>> callStats = new HashMap<>();
+  private final Map<Integer, String> pendingCalls = new HashMap<>();
+  // getMore is accounted to call which opened cursor
+  private final Map<Long, String> cursorOrigins = new HashMap<>();
+
+  private int current = -1;
+  private long statementStart;
+
+  public ScriptProfile(List<Statement> statements) {
+    this.statements = new ArrayList<>(statements);
+  }
+
+  /**
+   * Called by instrumented script before each top level statement
+   *
+   * @return always false, so marker statement does nothing
+   */
+  public synchronized boolean enter(int statement) {
+    finish();
+    current = statement;
+    statementStart = System.nanoTime();
+    statementStats.computeIfAbsent(statement, k -> new Stats());
+    return false;
+  }
+
+  /**
+   * Documents of script result are loaded after script finished
+   */
+  public void enterResultLoading() {
+    enter(statements.size());
+  }
+
+  public synchronized void finish() {
+    if (current >= 0) {
+      statementStats.get(current).wallNanos += System.nanoTime() - statementStart;
+      current = -1;
+    }
+  }
+
+  public synchronized void commandStarted(int requestId, String name, BsonDocument command) {
+    String call = name;
+    if ("getMore".equals(name) && command.isInt64("getMore")) {
+      call = cursorOrigins.getOrDefault(command.getInt64("getMore").getValue(), name);
+    }
+    pendingCalls.put(requestId, call);
+  }
+
+  public synchronized void commandSucceeded(int requestId, String name, long elapsedNanos, BsonDocument response) {
+    String call = pendingCalls.remove(requestId);
+    if (call == null) {
+      call = name;
+    }
+    long cursorId = cursorId(response);
+    if (cursorId != 0) {
+      cursorOrigins.put(cursorId, call);
+    }
+    add(call, elapsedNanos, countDocuments(response), CommandMetrics.sizeOf(response), false);
+  }
+
+  public synchronized void commandFailed(int requestId, String name, long elapsedNanos) {
+    String call = pendingCalls.remove(requestId);
+    add(call != null ? call : name, elapsedNanos, 0, 0, true);
+  }
+
+  private void add(String call, long elapsedNanos, long documents, long bytes, boolean failed) {
+    // call outside of statement, e.g. script was not instrumented
+    int statement = current >= 0 ? current : 0;
+    Stats total = statementStats.computeIfAbsent(statement, k -> new Stats());
+    Stats stats = callStats.computeIfAbsent(statement, k -> new LinkedHashMap<>()).computeIfAbsent(call, k -> new Stats());
+    total.add(elapsedNanos, documents, bytes, failed);
+    stats.add(elapsedNanos, documents, bytes, failed);
+  }
+
+  private static long cursorId(BsonDocument response) {
+    BsonValue cursor = response.get("cursor");
+    if (cursor != null && cursor.isDocument() && cursor.asDocument().isInt64("id")) {
+      return cursor.asDocument().getInt64("id").getValue();
+    }
+    return 0;
+  }
+
+  private static long countDocuments(BsonDocument response) {
+    BsonValue cursor = response.get("cursor");
+    if (cursor != null && cursor.isDocument()) {
+      BsonDocument cursorDocument = cursor.asDocument();
+      for (String batch : new String[] {"firstBatch", "nextBatch"}) {
+        if (cursorDocument.isArray(batch)) {
+          return cursorDocument.getArray(batch).size();
+        }
+      }
+    }
+    // distinct
+    if (response.isArray("values")) {
+      return response.getArray("values").size();
+    }
+    return 0;
+  }
+
+  /**
+   * @return row for each executed statement followed by rows of its server calls
+   */
+  public synchronized List<Row> getRows() {
+    List<Row> rows = new ArrayList<>();
+    statementStats.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+      int index = e.getKey();
+      if (index < statements.size()) {
+        Statement statement = statements.get(index);
+        rows.add(new Row(String.valueOf(statement.getLine()), statement.getText(), e.getValue(), true));
+      }
+      else {
+        rows.add(new Row("", RESULT_LOADING, e.getValue(), true));
+      }
+      callStats.getOrDefault(index, Collections.emptyMap())
+          .forEach((call, stats) -> rows.add(new Row("", "  " + call, stats, false)));
+    });
+    return rows;
+  }
+
+  /**
+   * Top level statement of script
+   */
+  public static class Statement {
+    private final int line;
+    private final String text;
+
+    public Statement(int line, String text) {
+      this.line = line;
+      this.text = text;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public String getText() {
+      return text;
+    }
+  }
+
+  private static class Stats {
+    private long wallNanos;
+    // driver elapsed time of command, includes network
+    private long roundTripNanos;
+    private long roundTrips;
+    private long documents;
+    private long bytes;
+    private long errors;
+
+    private void add(long elapsedNanos, long documents, long bytes, boolean failed) {
+      roundTripNanos += elapsedNanos;
+      roundTrips++;
+      this.documents += documents;
+      this.bytes += bytes;
+      if (failed) {
+        errors++;
+      }
+    }
+  }
+
+  /**
+   * Statement or server call, wall time is shown only for statements
+   */
+  public static class Row {
+    private final String line;
+    private final String name;
+    private final String wallTime;
+    private final String roundTripTime;
+    private final long roundTrips;
+    private final long documents;
+    private final long bytes;
+    private final long errors;
+
+    private Row(String line, String name, Stats stats, boolean statement) {
+      this.line = line;
+      this.name = name;
+      this.wallTime = statement ? formatMillis(stats.wallNanos) : "";
+      this.roundTripTime = formatMillis(stats.roundTripNanos);
+      this.roundTrips = stats.roundTrips;
+      this.documents = stats.documents;
+      this.bytes = stats.bytes;
+      this.errors = stats.errors;
+    }
+
+    private static String formatMillis(long nanos) {
+      return String.format("%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public String getLine() {
+      return line;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getWallTime() {
+      return wallTime;
+    }
+
+    public String getRoundTripTime() {
+      return roundTripTime;
+    }
+
+    public long getRoundTrips() {
+      return roundTrips;
+    }
+
+    public long getDocuments() {
+      return documents;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    public long getErrors() {
+      return errors;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package mongofx.service;
 import com.google.inject.Singleton;
 import mongofx.js.api.DB;
 import mongofx.js.api.RS;
+import mongofx.service.ScriptEnginePool.PooledEngine;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +16,10 @@ import java.util.function.Function;
 @Singleton
 public class ScriptService {
   private static final Logger log = LoggerFactory.getLogger(ScriptService.class);
+  private static final int COMPILED_SCRIPTS_CACHE_SIZE = 64;
 
-  private ScriptEngineManager engineManager = new ScriptEngineManager();
-  private ScriptEngine engine = engineManager.getEngineByName("nashorn");
+  private final ScriptEnginePool enginePool =
+      new ScriptEnginePool("nashorn", WorkClass.INTERACTIVE.getLimit(), COMPILED_SCRIPTS_CACHE_SIZE);
 
   private final Function<String, ObjectId> toObjectId = ObjectId::new;
 
@@ -27,11 +29,13 @@ public class ScriptService {
     bindings.put("db", new DB(db));
     bindings.put("rs", new RS(db.getSiblingDB("admin")));
     bindings.put("ObjectId", toObjectId);
+    // instrumented script reports statements to profile
+    OperationContext.current().getProfile().ifPresent(profile -> bindings.put(ScriptProfile.BINDING, profile));
 
     StringWriter writer = new StringWriter();
     scriptContext.setWriter(writer);
 
-    Object result = engine.eval(query, scriptContext);
+    Object result = eval(query, scriptContext);
     StringBuffer out = writer.getBuffer();
 
     if (result != null) {
@@ -46,4 +50,65 @@ public class ScriptService {
     }
     return Optional.empty();
   }
+
+  private Object eval(String query, ScriptContext scriptContext) throws ScriptException {
+    PooledEngine engine;
+    try {
+      engine = enginePool.acquire(query);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ScriptException("Script eval interrupted");
+    }
+
+    try {
+      return engine.compile(query).eval(scriptContext);
+    }
+    finally {
+      enginePool.release(engine);
+    }
+  }
+
+  /**
+   * Compile script in advance, so next eval of the same text skip compilation
+   */
+  public void precompile(String query) {
+    if (query == null || query.trim().isEmpty()) {
+      return;
+    }
+    // all engines busy, nothing to do in background
+    enginePool.tryAcquire(query).ifPresent(engine -> {
+      try {
+        if (!engine.isCompiled(query)) {
+          engine.compile(query);
+        }
+      }
+      catch (ScriptException e) {
+        // script in editor is not finished yet
+        log.debug("Precompile failed: {}", e.getMessage());
+      }
+      finally {
+        enginePool.release(engine);
+      }
+    });
+  }
+
+  /**
+   * Create and warm up engines for all eval threads
+   */
+  public void warmUp() {
+    enginePool.warmUp();
+  }
+
+  public int getEnginePoolSize() {
+    return enginePool.getPoolSize();
+  }
+
+  public int getWarmedUpEngines() {
+    return enginePool.getWarmedUpCount();
+  }
+
+  public boolean isWarmedUp() {
+    return enginePool.isWarmedUp();
+  }
 }
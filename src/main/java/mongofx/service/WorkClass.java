@@ -0,0 +1,72 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+/**
+ * Kinds of work run by {@link Executor}, declared in order of priority
+ */
+public enum WorkClass {
+  /** Cancellation of running work, e.g. kill of stopped script operations, has own threads */
+  CONTROL(2, Thread.NORM_PRIORITY, 20, false),
+  /** Script evaluation started by user */
+  INTERACTIVE(5, Thread.NORM_PRIORITY, 100, false),
+  /** Tree and stats loading */
+  METADATA(8, Thread.NORM_PRIORITY, 1000, true),
+  /** Prefetch, counts, cache refresh, can be skipped when queue is long */
+  BACKGROUND(3, Thread.MIN_PRIORITY, 50, true),
+  /** Long running operations like copy or export */
+  JOB(2, Thread.MIN_PRIORITY, 20, true);
+
+  private final int limit;
+  private final int threadPriority;
+  private final int queueLimit;
+  private final boolean shared;
+
+  private WorkClass(int limit, int threadPriority, int queueLimit, boolean shared) {
+    this.limit = limit;
+    this.threadPriority = threadPriority;
+    this.queueLimit = queueLimit;
+    this.shared = shared;
+  }
+
+  /**
+   * @return max concurrently running tasks of class
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getThreadPriority() {
+    return threadPriority;
+  }
+
+  /**
+   * @return queue length after which optional tasks are skipped and class is saturated
+   */
+  public int getQueueLimit() {
+    return queueLimit;
+  }
+
+  /**
+   * @return true if class competes for shared threads with other classes
+   */
+  public boolean isShared() {
+    return shared;
+  }
+}
@@ -0,0 +1,77 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+/**
+ * Queue state of one work class
+ */
+public class WorkClassSummary {
+  private final String workClass;
+  private final int running;
+  private final int queued;
+  private final int maxQueued;
+  private final long completed;
+  private final long skipped;
+  private final boolean saturated;
+  private final long averageWaitMs;
+
+  WorkClassSummary(WorkClass workClass, int running, int queued, int maxQueued, long completed, long skipped,
+      boolean saturated, long averageWaitMs) {
+    this.workClass = workClass.name();
+    this.running = running;
+    this.queued = queued;
+    this.maxQueued = maxQueued;
+    this.completed = completed;
+    this.skipped = skipped;
+    this.saturated = saturated;
+    this.averageWaitMs = averageWaitMs;
+  }
+
+  public String getWorkClass() {
+    return workClass;
+  }
+
+  public int getRunning() {
+    return running;
+  }
+
+  public int getQueued() {
+    return queued;
+  }
+
+  public int getMaxQueued() {
+    return maxQueued;
+  }
+
+  public long getCompleted() {
+    return completed;
+  }
+
+  public long getSkipped() {
+    return skipped;
+  }
+
+  public boolean isSaturated() {
+    return saturated;
+  }
+
+  public long getAverageWaitMs() {
+    return averageWaitMs;
+  }
+}
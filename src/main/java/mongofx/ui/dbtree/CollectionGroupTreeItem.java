@@ -0,0 +1,57 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.dbtree;
+
+import java.util.List;
+import java.util.function.Function;
+
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.TreeItem;
+
+/**
+ * Range of collection nodes in database with many collections, nodes are created on first expand
+ */
+public class CollectionGroupTreeItem extends TreeItem<DbTreeValue> {
+  private final List<String> names;
+  private final Function<List<String>, List<TreeItem<DbTreeValue>>> itemsBuilder;
+  private boolean built = false;
+
+  public CollectionGroupTreeItem(DbTreeValue value, Node graphic, List<String> names,
+      Function<List<String>, List<TreeItem<DbTreeValue>>> itemsBuilder) {
+    super(value, graphic);
+    this.names = names;
+    this.itemsBuilder = itemsBuilder;
+  }
+
+  @Override
+  public boolean isLeaf() {
+    return names.isEmpty();
+  }
+
+  @Override
+  public ObservableList<TreeItem<DbTreeValue>> getChildren() {
+    ObservableList<TreeItem<DbTreeValue>> children = super.getChildren();
+    if (!built) {
+      built = true;
+      children.setAll(itemsBuilder.apply(names));
+    }
+    return children;
+  }
+}
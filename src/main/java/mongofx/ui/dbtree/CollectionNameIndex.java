@@ -0,0 +1,81 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.dbtree;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collection names of database sorted case insensitive, allows to find names by prefix without scanning all names
+ */
+public class CollectionNameIndex {
+  private final String[] names;
+  private final String[] keys;
+
+  public CollectionNameIndex(Collection<String> collectionNames) {
+    names = collectionNames.toArray(new String[collectionNames.size()]);
+    Arrays.sort(names, Comparator.comparing((String n) -> n.toLowerCase(Locale.ROOT)).thenComparing(n -> n));
+    keys = new String[names.length];
+    for (int i = 0; i < names.length; i++) {
+      keys[i] = names[i].toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /**
+   * @return sorted names starting with prefix ignoring case, all names on empty prefix
+   */
+  public List<String> find(String prefix) {
+    List<String> all = Collections.unmodifiableList(Arrays.asList(names));
+    if (prefix == null || prefix.isEmpty()) {
+      return all;
+    }
+    String key = prefix.toLowerCase(Locale.ROOT);
+    int from = firstNotBefore(key, false);
+    int to = firstNotBefore(key, true);
+    return all.subList(from, to);
+  }
+
+  /**
+   * Binary search of first key not less than prefix, with afterMatches keys starting with prefix are also skipped
+   */
+  private int firstNotBefore(String prefix, boolean afterMatches) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      String key = keys[mid];
+      boolean before = afterMatches && key.startsWith(prefix) || key.compareTo(prefix) < 0;
+      if (before) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  public int size() {
+    return names.length;
+  }
+}
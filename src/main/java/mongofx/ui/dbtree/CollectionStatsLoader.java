@@ -0,0 +1,118 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.dbtree;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+
+import javafx.application.Platform;
+import javafx.scene.control.TreeItem;
+import mongofx.service.CollectionDetails;
+import mongofx.service.Executor;
+import mongofx.service.MongoDatabase;
+import mongofx.service.WorkClass;
+import mongofx.ui.dbtree.DbTreeValue.TreeValueType;
+
+/**
+ * Loads collStats of collection nodes in background, nodes are updated as stats arrive. Only limit of metadata class
+ * is submitted at once so database with many collections doesn't fill the metadata queue.
+ */
+public class CollectionStatsLoader {
+  private static final Logger log = LoggerFactory.getLogger(CollectionStatsLoader.class);
+  private static final long RETRY_DELAY_MS = 500;
+
+  private final Executor executor;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  private int inFlight = 0;
+  private volatile boolean cancelled = false;
+
+  public CollectionStatsLoader(Executor executor) {
+    this.executor = executor;
+  }
+
+  public void load(MongoDatabase db, List<TreeItem<DbTreeValue>> items) {
+    for (TreeItem<DbTreeValue> item : items) {
+      String collectionName = item.getValue().getDisplayValue();
+      pending.add(() -> loadStats(db, collectionName, item));
+    }
+    submitPending();
+  }
+
+  private synchronized void submitPending() {
+    while (!cancelled && inFlight < WorkClass.METADATA.getLimit()) {
+      Runnable task = pending.poll();
+      if (task == null) {
+        return;
+      }
+      if (!executor.tryExecute(WorkClass.METADATA, () -> runLoad(task))) {
+        // metadata queue is full, retry when own task completes or after delay
+        pending.add(task);
+        if (inFlight == 0) {
+          executor.schedule(this::submitPending, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        return;
+      }
+      inFlight++;
+    }
+  }
+
+  private void runLoad(Runnable task) {
+    try {
+      task.run();
+    }
+    finally {
+      synchronized (this) {
+        inFlight--;
+      }
+      submitPending();
+    }
+  }
+
+  private void loadStats(MongoDatabase db, String collectionName, TreeItem<DbTreeValue> item) {
+    if (cancelled) {
+      return;
+    }
+    try {
+      CollectionDetails details = db.getCollectionDetails(collectionName);
+      Platform.runLater(() -> {
+        if (!cancelled) {
+          item.setValue(new DbTreeValue(db, details, TreeValueType.COLLECTION));
+        }
+      });
+    }
+    catch (MongoException e) {
+      log.warn("Can't load stats of collection {}", collectionName, e);
+    }
+  }
+
+  /**
+   * Skip stats not loaded yet, e.g. when collection list reloaded
+   */
+  public void cancel() {
+    cancelled = true;
+    pending.clear();
+  }
+}
@@ -55,11 +55,12 @@ public class CopyCollectionHelper {
     return true;
   }
 
+  /**
+   * Should be called after {@link #validate()}, may take long time so should not run in UI thread
+   */
   public void copy() {
-    if (validate()) {
-      fromDb.getMongoDb().getCollection(toCollection).drop();
-      fromDb.getMongoDb().getCollection(fromCollection).aggregate(Arrays.asList(new BasicDBObject("$out", toCollection)))
-          .batchSize(10).first();
-    }
+    fromDb.getMongoDb().getCollection(toCollection).drop();
+    fromDb.getMongoDb().getCollection(fromCollection).aggregate(Arrays.asList(new BasicDBObject("$out", toCollection)))
+        .batchSize(10).first();
   }
 }
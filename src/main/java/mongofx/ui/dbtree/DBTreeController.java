@@ -18,15 +18,22 @@
 //
 package mongofx.ui.dbtree;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import javafx.scene.control.*;
 import mongofx.ui.main.UIBuilder;
 import mongofx.ui.msg.PopupService;
 import org.bson.Document;
+import org.reactfx.EventStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.mongodb.MongoException;
@@ -35,19 +42,26 @@ import com.mongodb.client.MongoCollection;
 
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIcon;
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIconView;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventTarget;
 import javafx.scene.Node;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseEvent;
 import mongofx.service.Executor;
 import mongofx.service.MongoConnection;
 import mongofx.service.MongoDatabase;
 import mongofx.service.MongoService.MongoDbConnection;
+import mongofx.service.WorkClass;
 import mongofx.ui.dbtree.DbTreeValue.TreeValueType;
 import mongofx.ui.main.MainFrameController;
 
 public class DBTreeController {
+  private static final Logger log = LoggerFactory.getLogger(DBTreeController.class);
+
+  private static final int GROUP_SIZE = 500;
+  private static final Duration FILTER_IDLE_TIMEOUT = Duration.ofMillis(200);
 
   @Inject
   private Executor executor;
@@ -66,9 +80,40 @@ public class DBTreeController {
   private ContextMenu collectionContextMenu;
   private ContextMenu indexContextMenu;
 
+  // collection names of loaded database nodes
+  private final Map<DbTreeValue, CollectionNameIndex> collectionIndexes = Collections.synchronizedMap(new WeakHashMap<>());
+  private volatile String collectionFilter = "";
+
+  // stats loading of database node, previous loading cancelled on reload
+  private final Map<DbTreeValue, CollectionStatsLoader> statsLoaders = Collections.synchronizedMap(new WeakHashMap<>());
+
   public void reloadSelectedTreeItem() {
     TreeItem<DbTreeValue> selectedItem = treeView.getSelectionModel().getSelectedItem();
-    findParentOfType(selectedItem, DynamicTreeItem.class).ifPresent(ti -> ti.reload());
+    findParentOfType(selectedItem, DynamicTreeItem.class).ifPresent(ti -> {
+      invalidateMetadata(ti.getValue());
+      ti.reload();
+    });
+  }
+
+  /**
+   * Explicit reload should not show cached metadata
+   */
+  private void invalidateMetadata(DbTreeValue value) {
+    switch (value.getValueType()) {
+      case CONNECTION:
+        value.getMongoConnection().getMetadataCache().invalidateDatabases();
+        break;
+      case DATABASE:
+        value.getMongoDatabase().invalidateCollections();
+        break;
+      case CATEGORY:
+        if (value.getCollectionName() != null) {
+          value.getMongoDatabase().invalidateCollection(value.getCollectionName());
+        }
+        break;
+      default:
+        break;
+    }
   }
 
   private Optional<DynamicTreeItem> findParentOfType(TreeItem<DbTreeValue> selectedItem, Class<DynamicTreeItem> class1) {
@@ -93,40 +138,106 @@ public class DBTreeController {
 
   private TreeItem<DbTreeValue> createDbItem(MongoDatabase d) {
     return new DynamicTreeItem(new DbTreeValue(d, d.getName(), TreeValueType.DATABASE),
-        new FontAwesomeIconView(FontAwesomeIcon.DATABASE), executor, popupService, this::buildDbChilds);
+        new FontAwesomeIconView(FontAwesomeIcon.DATABASE), d.getMongoConnection().getLoadLane(), popupService,
+        this::buildDbChilds);
   }
 
   private List<TreeItem<DbTreeValue>> buildDbChilds(DbTreeValue value) {
-    MongoDatabase db = value.getMongoDatabase();
-    return db.listCollectionDetails().stream()
-        .map(cd -> new TreeItem<>(new DbTreeValue(db, cd, TreeValueType.COLLECTION),
-            new FontAwesomeIconView(FontAwesomeIcon.TABLE)))
-        .peek(ti -> buildCollectionDetail(db, ti)).collect(Collectors.toList());
+    // explicit reload invalidates cache before
+    CollectionNameIndex index = new CollectionNameIndex(value.getMongoDatabase().getCachedCollections());
+    collectionIndexes.put(value, index);
+    value.setCount(index.size());
+    return buildCollectionItems(value, index.find(collectionFilter));
+  }
+
+  private List<TreeItem<DbTreeValue>> buildCollectionItems(DbTreeValue dbValue, List<String> names) {
+    // names shown at once, stats filled in as they arrive
+    CollectionStatsLoader loader = new CollectionStatsLoader(executor);
+    CollectionStatsLoader previous = statsLoaders.put(dbValue, loader);
+    if (previous != null) {
+      previous.cancel();
+    }
+    return buildCollectionGroup(dbValue.getMongoDatabase(), loader, names);
+  }
+
+  /**
+   * Nodes are created only for short lists, long lists are split to groups which create nodes on expand
+   */
+  private List<TreeItem<DbTreeValue>> buildCollectionGroup(MongoDatabase db, CollectionStatsLoader loader,
+      List<String> names) {
+    if (names.size() <= GROUP_SIZE) {
+      List<TreeItem<DbTreeValue>> items = names.stream()
+          .map(name -> new TreeItem<>(new DbTreeValue(db, name, TreeValueType.COLLECTION),
+              new FontAwesomeIconView(FontAwesomeIcon.TABLE)))
+          .peek(ti -> buildCollectionDetail(db, ti)).collect(Collectors.toList());
+      loader.load(db, items);
+      return items;
+    }
+
+    // not more than GROUP_SIZE groups on one level
+    int groupSize = Math.max(GROUP_SIZE, (names.size() + GROUP_SIZE - 1) / GROUP_SIZE);
+    List<TreeItem<DbTreeValue>> groups = new ArrayList<>();
+    for (int from = 0; from < names.size(); from += groupSize) {
+      List<String> groupNames = names.subList(from, Math.min(from + groupSize, names.size()));
+      DbTreeValue groupValue = new DbTreeValue(db,
+          groupNames.get(0) + " \u2026 " + groupNames.get(groupNames.size() - 1), TreeValueType.CATEGORY);
+      groupValue.setCount(groupNames.size());
+      groups.add(new CollectionGroupTreeItem(groupValue, new FontAwesomeIconView(FontAwesomeIcon.FOLDER), groupNames,
+          n -> buildCollectionGroup(db, loader, n)));
+    }
+    return groups;
+  }
+
+  /**
+   * Shows only collections starting with filter in loaded databases, not loaded databases are filtered on load
+   */
+  private void filterCollections(String filter) {
+    collectionFilter = filter.trim();
+    for (TreeItem<DbTreeValue> connectionItem : treeView.getRoot().getChildren()) {
+      if (!((DynamicTreeItem)connectionItem).isLoaded()) {
+        continue;
+      }
+      for (TreeItem<DbTreeValue> dbItem : connectionItem.getChildren()) {
+        CollectionNameIndex index = collectionIndexes.get(dbItem.getValue());
+        if (index == null) {
+          continue;
+        }
+        List<String> names = index.find(collectionFilter);
+        dbItem.getChildren().setAll(buildCollectionItems(dbItem.getValue(), names));
+        if (!collectionFilter.isEmpty()) {
+          dbItem.setExpanded(!names.isEmpty());
+        }
+      }
+    }
   }
 
   private void buildCollectionDetail(MongoDatabase db, TreeItem<DbTreeValue> ti) {
     DbTreeValue indexCategory = new DbTreeValue(db, "Indexes", TreeValueType.CATEGORY);
     indexCategory.setCollectionName(ti.getValue().getDisplayValue());
-    ti.getChildren().add(new DynamicTreeItem(indexCategory, new FontAwesomeIconView(FontAwesomeIcon.FOLDER), executor, popupService,
-        this::buildIndexes));
+    ti.getChildren().add(new DynamicTreeItem(indexCategory, new FontAwesomeIconView(FontAwesomeIcon.FOLDER),
+        db.getMongoConnection().getLoadLane(), popupService, this::buildIndexes));
   }
 
   private List<TreeItem<DbTreeValue>> buildIndexes(DbTreeValue value) {
-    MongoCollection<Document> collection =
-        value.getMongoDatabase().getMongoDb().getCollection(value.getCollectionName());
-
-    return StreamSupport.stream(collection.listIndexes().spliterator(), false).map(d -> {
+    return value.getMongoDatabase().listIndexes(value.getCollectionName()).stream().map(d -> {
       DbTreeValue val = new DbTreeValue(value.getMongoDatabase(), (String)d.get("name"), TreeValueType.INDEX);
       val.setCollectionName(value.getDisplayValue());
       return new TreeItem<>(val, new FontAwesomeIconView(FontAwesomeIcon.ASTERISK));
     }).collect(Collectors.toList());
   }
 
-  public void initialize(TreeView<DbTreeValue> treeView, MainFrameController mainFrameController) {
+  public void initialize(TreeView<DbTreeValue> treeView, TextField filterField, MainFrameController mainFrameController) {
     this.treeView = treeView;
     this.mainFrameController = mainFrameController;
     treeView.setRoot(new TreeItem<>());
     treeView.setCellFactory(tv -> new TreeDbCell());
+    EventStreams.valuesOf(filterField.textProperty()).successionEnds(FILTER_IDLE_TIMEOUT)
+        .subscribe(this::filterCollections);
+    filterField.setOnKeyPressed(e -> {
+      if (e.getCode() == KeyCode.ESCAPE) {
+        filterField.clear();
+      }
+    });
     buildDbContextMenu();
     buildCollectionContextMenu();
     buildIndexContextMenu();
@@ -174,7 +285,8 @@ public class DBTreeController {
     dialog.showAndWait().ifPresent(targetCollection -> {
       MongoCollection<Document> collection = value.getMongoDatabase().getMongoDb().getCollection(value.getDisplayValue());
       collection.renameCollection(new MongoNamespace(value.getMongoDatabase().getName(), targetCollection));
-      ((DynamicTreeItem)selectedItem.getParent()).reload();
+      value.getMongoDatabase().invalidateCollections();
+      findParentOfType(selectedItem.getParent(), DynamicTreeItem.class).ifPresent(DynamicTreeItem::reload);
     });
   }
 
@@ -190,9 +302,25 @@ public class DBTreeController {
     dialog.setContentText("New collection name:");
     dialog.setHeaderText("Copy collection");
     dialog.showAndWait().ifPresent(targetCollection -> {
-      new CopyCollectionHelper(value.getMongoDatabase(), sourceCollectionName, targetCollection).copy();
-      ((DynamicTreeItem)selectedItem.getParent()).reload();
-      popupService.showInfo(String.format("Collection %s copied to %s", sourceCollectionName, targetCollection));
+      CopyCollectionHelper helper = new CopyCollectionHelper(value.getMongoDatabase(), sourceCollectionName, targetCollection);
+      if (!helper.validate()) {
+        return;
+      }
+      popupService.showInfo(String.format("Copying collection %s to %s", sourceCollectionName, targetCollection));
+      executor.execute(WorkClass.JOB, () -> {
+        try {
+          helper.copy();
+          Platform.runLater(() -> {
+            value.getMongoDatabase().invalidateCollections();
+            findParentOfType(selectedItem.getParent(), DynamicTreeItem.class).ifPresent(DynamicTreeItem::reload);
+            popupService.showInfo(String.format("Collection %s copied to %s", sourceCollectionName, targetCollection));
+          });
+        }
+        catch (MongoException e) {
+          log.warn("Can't copy collection", e);
+          Platform.runLater(() -> popupService.showError("Can't copy collection", e.getMessage()));
+        }
+      });
     });
   }
 
@@ -219,8 +347,11 @@ public class DBTreeController {
     TextInputDialog dialog = new TextInputDialog();
     dialog.setContentText("Enter Name:");
     dialog.setHeaderText("Create new db");
-    dialog.showAndWait().ifPresent(r -> selectedItem.getChildren()
-        .add(createDbItem(selectedItem.getValue().getMongoConnection().createMongoDB(dialog.getResult()))));
+    dialog.showAndWait().ifPresent(r -> {
+      MongoConnection mongoConnection = selectedItem.getValue().getMongoConnection();
+      mongoConnection.getMetadataCache().invalidateDatabases();
+      selectedItem.getChildren().add(createDbItem(mongoConnection.createMongoDB(dialog.getResult())));
+    });
   }
 
   public void onDisconnectDb(ActionEvent ev) {
@@ -302,7 +433,8 @@ public class DBTreeController {
     DbTreeValue connectTreeValue =
         new DbTreeValue(mongoDbConnection, mongoDbConnection.getConnectionSettings().getHost());
     DynamicTreeItem item = new DynamicTreeItem(connectTreeValue, new FontAwesomeIconView(FontAwesomeIcon.SERVER),
-        executor, popupService, tv -> buildDbList(tv.getHostConnect().getMongoConnection()));
+        mongoDbConnection.getMongoConnection().getLoadLane(), popupService,
+        tv -> buildDbList(tv.getHostConnect().getMongoConnection()));
     item.setOnFiled(() -> removeFromRoot(item));
     item.setExpanded(true);
     treeView.getRoot().getChildren().add(item);
@@ -349,7 +481,7 @@ public class DBTreeController {
 
     private void setupTooltip(DbTreeValue item) {
       TreeValueType valueType = item.getValueType();
-      if (valueType == TreeValueType.COLLECTION) {
+      if (valueType == TreeValueType.COLLECTION && item.getCollectionDetails() != null) {
         setTooltip(uiBuilder.loadDBCollectionInfoTooltip(item.getCollectionDetails()));
       } else {
         setTooltip(null);
@@ -29,13 +29,13 @@ import javafx.concurrent.Task;
 import javafx.scene.Node;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TreeItem;
-import mongofx.service.Executor;
+import mongofx.service.LoadLane;
 import mongofx.ui.msg.PopupService;
 
 public class DynamicTreeItem extends TreeItem<DbTreeValue> {
   private static final Logger log = LoggerFactory.getLogger(DynamicTreeItem.class);
 
-  private final Executor executor;
+  private final LoadLane loadLane;
   private final PopupService popupService;
 
   private boolean loaded = false;
@@ -47,11 +47,11 @@ public class DynamicTreeItem extends TreeItem<DbTreeValue> {
 
   private LoadTask currentLoadTask;
 
-  public DynamicTreeItem(DbTreeValue value, Node graphic, Executor executor, PopupService popupService,
+  public DynamicTreeItem(DbTreeValue value, Node graphic, LoadLane loadLane, PopupService popupService,
       Function<DbTreeValue, List<TreeItem<DbTreeValue>>> supplier) {
     super(value, graphic);
     this.supplier = supplier;
-    this.executor = executor;
+    this.loadLane = loadLane;
     this.popupService = popupService;
 
     progress = new ProgressIndicator();
@@ -62,6 +62,12 @@ public class DynamicTreeItem extends TreeItem<DbTreeValue> {
         currentLoadTask.cancel(true);
       }
     });
+    // not needed anymore, loaded again on next expand
+    expandedProperty().addListener((o, wasExpanded, expanded) -> {
+      if (!expanded && currentLoadTask != null) {
+        currentLoadTask.cancel(true);
+      }
+    });
   }
 
   public void setOnFiled(Runnable onFiled) {
@@ -82,15 +88,25 @@ public class DynamicTreeItem extends TreeItem<DbTreeValue> {
     return children;
   }
 
+  public boolean isLoaded() {
+    return loaded;
+  }
+
   private void load(ObservableList<TreeItem<DbTreeValue>> children) {
     loaded = true;
-    graphic = getGraphic();
-    setGraphic(progress);
-    if (currentLoadTask != null) {
-      currentLoadTask.cancel(true);
-    }
+    LoadTask previous = currentLoadTask;
     currentLoadTask = new LoadTask(children);
-    executor.execute(currentLoadTask);
+    if (previous != null) {
+      // progress already shown, result of previous load ignored
+      previous.cancel(true);
+    }
+    else {
+      graphic = getGraphic();
+    }
+    // supplier may set own count, e.g. when not all children are shown
+    getValue().setCount(null);
+    setGraphic(progress);
+    loadLane.execute(currentLoadTask);
   }
 
   public void reload() {
@@ -112,22 +128,44 @@ public class DynamicTreeItem extends TreeItem<DbTreeValue> {
       return supplier.apply(value);
     }
 
-    @Override
-    protected void done() {
+    /**
+     * @return false if load replaced by reload
+     */
+    private boolean finish() {
+      if (currentLoadTask != this) {
+        return false;
+      }
       //FIXME: does not work on empty result
       setGraphic(graphic);
       currentLoadTask = null;
+      return true;
+    }
+
+    @Override
+    protected void cancelled() {
+      // collapsed or removed, load again on next expand
+      if (finish()) {
+        loaded = false;
+      }
     }
 
     @Override
     protected void succeeded() {
+      if (!finish()) {
+        return;
+      }
       List<TreeItem<DbTreeValue>> result = getValue();
-      value.setCount(result.size());
+      if (value.getCount() == null) {
+        value.setCount(result.size());
+      }
       children.setAll(result);
     }
 
     @Override
     protected void failed() {
+      if (!finish()) {
+        return;
+      }
       loaded = false;
       if (onFiled != null) {
         onFiled.run();
@@ -18,14 +18,63 @@
 //
 package mongofx.ui.main;
 
+import java.util.List;
+import java.util.Map;
+
 import org.bson.Document;
-import org.bson.json.JsonMode;
-import org.bson.json.JsonWriterSettings;
+
+import mongofx.driver.LazyDocument;
 
 public class DocumentUtils {
+  private static final JsonFormatter JSON_FORMATTER = new JsonFormatter();
 
   public static String formatJson(Document doc) {
-    return doc.toJson(new JsonWriterSettings(JsonMode.SHELL, true));
+    return JSON_FORMATTER.format(doc);
+  }
+
+  /**
+   * Format documents in parallel, formatted text is cached for later {@link #formatJson(Document)} calls
+   */
+  public static List<String> formatJson(List<Document> docs) {
+    return JSON_FORMATTER.formatAll(docs);
+  }
+
+  /**
+   * Format document which is not shown in results, e.g. temporary copy
+   */
+  public static String formatJsonUncached(Document doc) {
+    return JSON_FORMATTER.formatUncached(doc);
+  }
+
+  /**
+   * Rough estimate of heap used by document, good enough for cache budgets
+   */
+  public static long estimateSize(Object value) {
+    if (value instanceof LazyDocument) {
+      int rawSize = ((LazyDocument) value).getRawSize();
+      if (rawSize >= 0) {
+        // do not decode document to estimate it
+        return 64 + rawSize;
+      }
+    }
+    if (value instanceof Map) {
+      long size = 64;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += 32 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    }
+    if (value instanceof List) {
+      long size = 40;
+      for (Object item : (List<?>) value) {
+        size += 8 + estimateSize(item);
+      }
+      return size;
+    }
+    if (value instanceof String) {
+      return 40 + 2L * ((String) value).length();
+    }
+    return 16;
   }
 
   public static String bytesIntoHumanReadable(long bytes) {
@@ -0,0 +1,84 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.main;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriter;
+import org.bson.json.JsonWriterSettings;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Shell mode JSON formatting of result documents. Output buffers are reused per thread and formatted text is cached
+ * per document instance, so text view, copy and edit of same document format it only once.
+ */
+public class JsonFormatter {
+  private static final JsonWriterSettings SHELL_SETTINGS = new JsonWriterSettings(JsonMode.SHELL, true);
+  private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().isEncodingCollectibleDocument(true)
+      .build();
+  // pages smaller than this formatted in caller thread
+  private static final int PARALLEL_THRESHOLD = 64;
+  // do not keep huge buffer after formatting of huge document
+  private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+  private static final long CACHE_MAX_CHARS = 16 * 1024 * 1024;
+
+  private final DocumentCodec codec = new DocumentCodec();
+  private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(4096));
+  // weak keys are compared by identity
+  private final Cache<Document, String> cache = CacheBuilder.newBuilder().weakKeys()
+      .maximumWeight(CACHE_MAX_CHARS).weigher((Document d, String json) -> json.length()).build();
+
+  public String format(Document document) {
+    String json = cache.getIfPresent(document);
+    if (json == null) {
+      json = formatUncached(document);
+      cache.put(document, json);
+    }
+    return json;
+  }
+
+  /**
+   * Format page of documents, big pages formatted in parallel
+   */
+  public List<String> formatAll(List<Document> documents) {
+    if (documents.size() < PARALLEL_THRESHOLD) {
+      return documents.stream().map(this::format).collect(Collectors.toList());
+    }
+    return documents.parallelStream().map(this::format).collect(Collectors.toList());
+  }
+
+  public String formatUncached(Document document) {
+    StringWriter buffer = buffers.get();
+    buffer.getBuffer().setLength(0);
+    codec.encode(new JsonWriter(buffer, SHELL_SETTINGS), document, ENCODER_CONTEXT);
+    String json = buffer.toString();
+    if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+      buffers.remove();
+    }
+    return json;
+  }
+}
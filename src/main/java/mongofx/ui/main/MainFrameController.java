@@ -29,6 +29,7 @@ import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.value.ObservableBooleanValue;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.wellbehaved.event.EventHandlerHelper;
@@ -40,8 +41,11 @@ import com.google.inject.Inject;
 
 import javafx.fxml.FXML;
 import javafx.scene.Node;
+import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
@@ -49,7 +53,11 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCombination;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
+import mongofx.service.CommandSummary;
+import mongofx.service.Executor;
 import mongofx.service.MongoService;
+import mongofx.service.WorkClass;
+import mongofx.service.WorkClassSummary;
 import mongofx.service.settings.ConnectionSettings;
 import mongofx.ui.dbtree.DbTreeValue;
 import mongofx.ui.dbtree.DbTreeValue.TreeValueType;
@@ -68,6 +76,18 @@ public class MainFrameController {
   @FXML
   private CodeArea consoleLog;
 
+  @FXML
+  private ToggleButton metricsButton;
+
+  @FXML
+  private TableView<CommandSummary> metricsTable;
+
+  @FXML
+  private TableView<WorkClassSummary> workTable;
+
+  @FXML
+  private Label roundTrips;
+
   @Inject
   private PopupService popupService;
 
@@ -77,15 +97,24 @@ public class MainFrameController {
   @Inject
   private ConsoleController consoleController;
 
+  @Inject
+  private MetricsController metricsController;
+
   @Inject
   private DBTreeController DBTreeController;
 
   @Inject
   private MongoService mongoService;
 
+  @Inject
+  private Executor executor;
+
   @FXML
   private TreeView<DbTreeValue> treeView;
 
+  @FXML
+  private TextField treeFilter;
+
   @FXML
   private TabPane queryTabs;
 
@@ -96,14 +125,25 @@ public class MainFrameController {
 
   private BooleanProperty codeBufferActive = new SimpleBooleanProperty(false);
 
+  // scripts are held back while interactive queue is full
+  private BooleanProperty interactiveSaturated = new SimpleBooleanProperty(false);
+  private BooleanBinding runDisabled = codeBufferActive.not().or(interactiveSaturated);
+
   @FXML
   protected void initialize() {
     codeBufferActive.bind(Bindings.createBooleanBinding(() -> !queryTabs.getTabs().isEmpty(), queryTabs.getTabs()));
+    interactiveSaturated.set(executor.isSaturated(WorkClass.INTERACTIVE));
+    executor.addSaturationListener((workClass, saturated) -> {
+      if (workClass == WorkClass.INTERACTIVE) {
+        Platform.runLater(() -> interactiveSaturated.set(executor.isSaturated(WorkClass.INTERACTIVE)));
+      }
+    });
 
-    DBTreeController.initialize(treeView, this);
+    DBTreeController.initialize(treeView, treeFilter, this);
     consoleController.initialize(consoleLog);
+    metricsController.initialize(metricsTable, workTable, roundTrips, metricsButton);
     EventStreams.simpleChangesOf(queryTabs.getTabs())
-    .subscribe(e -> e.getRemoved().stream().forEach(t -> tabData.remove(t.getContent()).stopEval()));
+    .subscribe(e -> e.getRemoved().stream().forEach(t -> tabData.remove(t.getContent()).close()));
 
     Builder<KeyEvent> mainEvents = EventHandlerHelper.on(EventPattern.keyPressed(KeyCode.S, KeyCombination.CONTROL_DOWN)).act(a -> saveBuffer())//
         .on(EventPattern.keyPressed(KeyCode.O, KeyCombination.CONTROL_DOWN)).act(a -> openBuffer());
@@ -206,4 +246,12 @@ public class MainFrameController {
   public ObservableBooleanValue codeBufferActiveProperty() {
     return codeBufferActive;
   }
+
+  public Boolean getRunDisabled() {
+    return runDisabled.get();
+  }
+
+  public ObservableBooleanValue runDisabledProperty() {
+    return runDisabled;
+  }
 }
@@ -0,0 +1,86 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.main;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.inject.Inject;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToggleButton;
+import javafx.util.Duration;
+import mongofx.service.CommandMetrics;
+import mongofx.service.CommandSummary;
+import mongofx.service.Executor;
+import mongofx.service.MongoConnection;
+import mongofx.service.MongoService;
+import mongofx.service.WorkClassSummary;
+
+/**
+ * Driver command metrics of open connections and executor queues, refreshed while panel is shown
+ */
+public class MetricsController {
+  private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+  @Inject
+  private MongoService mongoService;
+
+  @Inject
+  private Executor executor;
+
+  private TableView<CommandSummary> metricsTable;
+  private TableView<WorkClassSummary> workTable;
+  private Label roundTrips;
+
+  private final Timeline refresh = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+
+  public void initialize(TableView<CommandSummary> metricsTable, TableView<WorkClassSummary> workTable,
+      Label roundTrips, ToggleButton metricsButton) {
+    this.metricsTable = metricsTable;
+    this.workTable = workTable;
+    this.roundTrips = roundTrips;
+    refresh.setCycleCount(Animation.INDEFINITE);
+    metricsButton.selectedProperty().addListener((o, wasSelected, selected) -> {
+      if (selected) {
+        refresh();
+        refresh.play();
+      }
+      else {
+        refresh.stop();
+      }
+    });
+  }
+
+  private void refresh() {
+    List<CommandMetrics> metrics =
+        mongoService.getConnections().stream().map(MongoConnection::getCommandMetrics).collect(Collectors.toList());
+    metricsTable.getItems().setAll(
+        metrics.stream().flatMap(m -> m.getCommands().stream()).collect(Collectors.toList()));
+    roundTrips.setText(metrics.stream()
+        .map(m -> String.format("%s: round trip %.1f ms (avg %.1f ms), checkout wait %.1f ms", m.getConnection(),
+            m.getRoundTripTimeMs(), m.getAverageRoundTripTimeMs(), m.getCheckoutWaitMs()))
+        .collect(Collectors.joining("; ")));
+    workTable.getItems().setAll(executor.getWorkClasses());
+  }
+}
@@ -18,40 +18,79 @@
 //
 package mongofx.ui.main;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Spliterators;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.mongodb.MongoCursorNotFoundException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoServerException;
 import com.mongodb.client.MongoCursor;
 
+import mongofx.driver.FieldNameDictionary;
 import mongofx.js.api.ObjectListPresentation;
+import mongofx.service.Executor;
+import mongofx.service.WorkClass;
 
 public class QueryResultHolder {
+  private static final Logger log = LoggerFactory.getLogger(QueryResultHolder.class);
+  private static final long PAGE_CACHE_MEMORY_BUDGET = 32L * 1024 * 1024;
+  private static final long CURSOR_IDLE_TIMEOUT_SEC = 60;
+  // pages read by one continuation cursor, server sorts only this window
+  private static final int CONTINUATION_PAGES = 10;
+  private static final int STREAM_BATCH_SIZE = 100;
+  private static final long STREAM_BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
   private final ObjectListPresentation objectListResult;
   private final String textResult;
+  private final Executor executor;
+
+  // cache, last used pages kept while they fit memory budget
+  private final LinkedHashMap<Page, CachedPage> pageCache = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<Page, CompletableFuture<List<Document>>> loadingPages = new HashMap<>();
+  private long pageCacheSize = 0;
 
-  // cache
-  private int cacheSkip = 0;
-  private int cacheLimit = 0;
-  private List<Document> cacheDocuments;
+  // open server cursor positioned after last loaded page
+  private final Object continuationLock = new Object();
+  private ContinuationCursor continuation;
+  private ScheduledFuture<?> continuationTimeout;
+  private boolean closed = false;
+  // window query failed, e.g. sort exceeds server memory limit, pages loaded by own queries
+  private volatile boolean continuationFailed = false;
+
+  // documents known to exist, lower bound of count
+  private final AtomicLong knownCount = new AtomicLong();
 
   public QueryResultHolder() {
     objectListResult = null;
     textResult = null;
+    executor = null;
   }
 
   public QueryResultHolder(String textResult) {
     objectListResult = null;
     this.textResult = textResult;
+    executor = null;
   }
 
-  public QueryResultHolder(ObjectListPresentation objectListResult) {
+  public QueryResultHolder(ObjectListPresentation objectListResult, Executor executor) {
     textResult = null;
     this.objectListResult = objectListResult;
+    this.executor = executor;
   }
 
   public boolean isTextOnlyPresentation() {
@@ -79,20 +118,301 @@ public class QueryResultHolder {
   }
 
   public List<Document> getDocuments(int skip, int limit) {
+    return getDocuments(skip, limit, null);
+  }
+
+  /**
+   * @param batchListener receives documents in small batches while page is loading, may be null
+   */
+  public List<Document> getDocuments(int skip, int limit, Consumer<List<Document>> batchListener) {
     assertObjectList();
-    if (cacheDocuments == null || cacheSkip != skip || cacheLimit != limit) {
-      try (MongoCursor<Document> iterator = objectListResult.iterator(skip, limit)) {
-        cacheDocuments = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false).collect(Collectors.toList());
-        cacheSkip = skip;
-        cacheLimit = limit;
+    Page page = new Page(skip, limit);
+    CompletableFuture<List<Document>> loading;
+    synchronized (pageCache) {
+      CachedPage cached = pageCache.get(page);
+      if (cached != null) {
+        return notifyListener(cached.documents, batchListener);
+      }
+      loading = loadingPages.get(page);
+    }
+
+    if (loading != null) {
+      try {
+        return notifyListener(loading.join(), batchListener);
+      }
+      catch (CompletionException e) {
+        log.warn("Page prefetch failed, load again", e.getCause());
+      }
+    }
+    return loadPage(page, batchListener);
+  }
+
+  private static List<Document> notifyListener(List<Document> documents, Consumer<List<Document>> batchListener) {
+    if (batchListener != null && !documents.isEmpty()) {
+      batchListener.accept(documents);
+    }
+    return documents;
+  }
+
+  /**
+   * Read documents from cursor, first document and then every few documents passed to listener. Tailable cursor
+   * never ends, so its page ends when no document is available now.
+   */
+  private static List<Document> read(MongoCursor<Document> cursor, int limit, boolean tailable,
+      Consumer<List<Document>> batchListener, List<Document> documents) {
+    int maxCount = limit > 0 ? limit : Integer.MAX_VALUE;
+    int notified = 0;
+    long lastNotifyTime = System.nanoTime();
+    while (documents.size() < maxCount) {
+      Document document = tailable ? cursor.tryNext() : cursor.hasNext() ? cursor.next() : null;
+      if (document == null) {
+        break;
       }
+      documents.add(document);
+      if (batchListener != null) {
+        long now = System.nanoTime();
+        if (notified == 0 || documents.size() - notified >= STREAM_BATCH_SIZE || now - lastNotifyTime >= STREAM_BATCH_NANOS) {
+          batchListener.accept(new ArrayList<>(documents.subList(notified, documents.size())));
+          notified = documents.size();
+          lastNotifyTime = now;
+        }
+      }
+    }
+    if (batchListener != null && notified < documents.size()) {
+      batchListener.accept(new ArrayList<>(documents.subList(notified, documents.size())));
+    }
+    return documents;
+  }
+
+  /**
+   * Load next and previous pages in background, so scroll does not wait for server
+   */
+  public void prefetch(int skip, int limit) {
+    if (isEmpty() || isTextOnlyPresentation() || limit <= 0) {
+      return;
     }
 
-    return cacheDocuments;
+    if (skip < Integer.MAX_VALUE - limit && !isLastPage(new Page(skip, limit))) {
+      prefetchPage(new Page(skip + limit, limit));
+    }
+    if (skip > 0) {
+      prefetchPage(new Page(Math.max(0, skip - limit), limit));
+    }
   }
 
-  public String getListPresentationString(int skip, int limit) {
-    return getDocuments(skip, limit).stream().map(DocumentUtils::formatJson).collect(Collectors.joining(",\n", "[", "]"));
+  private boolean isLastPage(Page page) {
+    synchronized (pageCache) {
+      CachedPage cached = pageCache.get(page);
+      return cached != null && cached.documents.size() < page.limit;
+    }
+  }
+
+  private void prefetchPage(Page page) {
+    synchronized (pageCache) {
+      if (pageCache.containsKey(page) || loadingPages.containsKey(page)) {
+        return;
+      }
+      CompletableFuture<List<Document>> future = new CompletableFuture<>();
+      boolean accepted = executor.tryExecute(WorkClass.BACKGROUND, () -> {
+        try {
+          future.complete(loadPage(page, null));
+        }
+        catch (RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+        finally {
+          synchronized (pageCache) {
+            loadingPages.remove(page);
+          }
+        }
+      });
+      if (accepted) {
+        loadingPages.put(page, future);
+      }
+      else {
+        log.debug("Prefetch skipped, background queue is full");
+      }
+    }
+  }
+
+  private List<Document> loadPage(Page page, Consumer<List<Document>> batchListener) {
+    List<Document> documents;
+    Optional<ContinuationCursor> cursor = takeContinuation(page);
+    if (cursor.isPresent()) {
+      documents = new ArrayList<>();
+      try {
+        cursor.get().read(page.limit, objectListResult.isTailable(), batchListener, documents);
+      }
+      catch (RuntimeException e) {
+        cursor.get().close();
+        // nothing shown yet, so page can be loaded again
+        if (!documents.isEmpty() || !(e instanceof MongoServerException) || e instanceof MongoCursorNotFoundException) {
+          throw e;
+        }
+        continuationFailed = true;
+        log.info("Query of next pages failed, pages are loaded by separate queries: {}", e.getMessage());
+        return loadPage(page, batchListener);
+      }
+      putContinuation(cursor.get());
+    }
+    else {
+      try (MongoCursor<Document> iterator = objectListResult.iterator(page.skip, page.limit)) {
+        documents = read(iterator, page.limit, objectListResult.isTailable(), batchListener, new ArrayList<>());
+      }
+    }
+    putToCache(page, new CachedPage(documents));
+    knownCount.accumulateAndGet((long) page.skip + documents.size(), Math::max);
+    return documents;
+  }
+
+  /**
+   * Count documents in background. Listener receives estimate first, then exact count or lower bound if counting
+   * takes longer than maxTimeMS.
+   */
+  public void count(long maxTimeMS, Consumer<ResultCount> listener) {
+    if (isEmpty() || isTextOnlyPresentation()) {
+      return;
+    }
+    if (!executor.tryExecute(WorkClass.BACKGROUND, () -> countDocuments(maxTimeMS, listener))) {
+      log.debug("Count skipped, background queue is full");
+    }
+  }
+
+  private void countDocuments(long maxTimeMS, Consumer<ResultCount> listener) {
+    try {
+      Optional<Long> estimate = objectListResult.estimatedCount();
+      if (estimate.isPresent()) {
+        if (!objectListResult.isFiltered()) {
+          listener.accept(ResultCount.exact(estimate.get()));
+          return;
+        }
+        listener.accept(ResultCount.atMost(estimate.get()));
+      }
+      objectListResult.countWithin(maxTimeMS).ifPresent(c -> listener.accept(ResultCount.exact(c)));
+    }
+    catch (MongoExecutionTimeoutException e) {
+      listener.accept(ResultCount.atLeast(knownCount.get()));
+    }
+    catch (RuntimeException e) {
+      log.warn("Count failed", e);
+    }
+  }
+
+  /**
+   * Open cursor continues only forward paging, backward pages loaded by separate query
+   */
+  private Optional<ContinuationCursor> takeContinuation(Page page) {
+    if (page.limit <= 0 || continuationFailed) {
+      return Optional.empty();
+    }
+
+    ContinuationCursor toClose = null;
+    try {
+      synchronized (continuationLock) {
+        if (closed) {
+          return Optional.empty();
+        }
+        if (continuation != null) {
+          // page must fit into window, limit may be changed by user
+          if (continuation.position == page.skip && (long) page.skip + page.limit <= continuation.end) {
+            ContinuationCursor result = continuation;
+            continuation = null;
+            return Optional.of(result);
+          }
+          if (continuation.position > page.skip) {
+            return Optional.empty();
+          }
+          toClose = continuation;
+          continuation = null;
+        }
+      }
+    }
+    finally {
+      if (toClose != null) {
+        toClose.close();
+      }
+    }
+
+    int window = (int) Math.min((long) page.limit * CONTINUATION_PAGES, Integer.MAX_VALUE - page.skip);
+    return objectListResult.continuousIterator(page.skip, window, page.limit)
+        .map(c -> new ContinuationCursor(c, page.skip, page.skip + window));
+  }
+
+  private void putContinuation(ContinuationCursor cursor) {
+    if (cursor.exhausted || cursor.position >= cursor.end) {
+      cursor.close();
+      return;
+    }
+
+    ContinuationCursor toClose = cursor;
+    synchronized (continuationLock) {
+      if (!closed && (continuation == null || continuation.position < cursor.position)) {
+        toClose = continuation;
+        continuation = cursor;
+        scheduleContinuationTimeout();
+      }
+    }
+    if (toClose != null) {
+      toClose.close();
+    }
+  }
+
+  private void scheduleContinuationTimeout() {
+    if (continuationTimeout != null) {
+      continuationTimeout.cancel(false);
+    }
+    if (executor != null) {
+      continuationTimeout = executor.schedule(this::closeContinuation, CURSOR_IDLE_TIMEOUT_SEC, TimeUnit.SECONDS);
+    }
+  }
+
+  private void closeContinuation() {
+    ContinuationCursor toClose;
+    synchronized (continuationLock) {
+      toClose = continuation;
+      continuation = null;
+    }
+    if (toClose != null) {
+      toClose.close();
+    }
+  }
+
+  /**
+   * Release server resources, result can't be paged after close
+   */
+  public void close() {
+    if (log.isDebugEnabled() && objectListResult != null) {
+      log.debug("Result of {} closed, shared strings saved {}", getCollectionName(),
+          DocumentUtils.bytesIntoHumanReadable(getSharedStringsSavedBytes()));
+    }
+    synchronized (continuationLock) {
+      closed = true;
+      if (continuationTimeout != null) {
+        continuationTimeout.cancel(false);
+      }
+    }
+    closeContinuation();
+  }
+
+  private void putToCache(Page page, CachedPage cachedPage) {
+    synchronized (pageCache) {
+      CachedPage old = pageCache.put(page, cachedPage);
+      if (old != null) {
+        pageCacheSize -= old.size;
+      }
+      pageCacheSize += cachedPage.size;
+
+      // evict least recently used pages, but always keep the last one
+      Iterator<CachedPage> iterator = pageCache.values().iterator();
+      while (pageCacheSize > PAGE_CACHE_MEMORY_BUDGET && pageCache.size() > 1) {
+        CachedPage eldest = iterator.next();
+        if (eldest == cachedPage) {
+          continue;
+        }
+        pageCacheSize -= eldest.size;
+        iterator.remove();
+      }
+    }
   }
 
   public String getTextPresentationString() {
@@ -102,4 +422,82 @@ public class QueryResultHolder {
   public String getCollectionName() {
     return objectListResult.getCollectionName();
   }
+
+  /**
+   * @return estimated memory saved by field names and strings shared between documents of result
+   */
+  public long getSharedStringsSavedBytes() {
+    if (objectListResult == null) {
+      return 0;
+    }
+    return objectListResult.getFieldNameDictionary().map(FieldNameDictionary::getSavedBytes).orElse(0L);
+  }
+
+  private static class Page {
+    private final int skip;
+    private final int limit;
+
+    public Page(int skip, int limit) {
+      this.skip = skip;
+      this.limit = limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Page)) {
+        return false;
+      }
+      Page page = (Page) o;
+      return skip == page.skip && limit == page.limit;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * skip + limit;
+    }
+  }
+
+  private static class ContinuationCursor {
+    private final MongoCursor<Document> cursor;
+    private final int end;
+    private int position;
+    private boolean exhausted = false;
+
+    public ContinuationCursor(MongoCursor<Document> cursor, int position, int end) {
+      this.cursor = cursor;
+      this.position = position;
+      this.end = end;
+    }
+
+    /**
+     * @param documents receives read documents, partly filled if read fails
+     */
+    public void read(int limit, boolean tailable, Consumer<List<Document>> batchListener, List<Document> documents) {
+      QueryResultHolder.read(cursor, limit, tailable, batchListener, documents);
+      position += documents.size();
+      exhausted = documents.size() < limit;
+    }
+
+    public void close() {
+      try {
+        cursor.close();
+      }
+      catch (RuntimeException e) {
+        log.debug("Error close cursor", e);
+      }
+    }
+  }
+
+  private static class CachedPage {
+    private final List<Document> documents;
+    private final long size;
+
+    public CachedPage(List<Document> documents) {
+      this.documents = documents;
+      size = documents.stream().mapToLong(DocumentUtils::estimateSize).sum();
+    }
+  }
 }
@@ -19,11 +19,15 @@
 package mongofx.ui.main;
 
 import com.google.inject.Inject;
+import com.mongodb.MongoException;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
@@ -34,21 +38,35 @@ import mongofx.codearea.CodeAreaBuilder;
 import mongofx.codearea.JsCodeArea;
 import mongofx.javafx.FocusFixer;
 import mongofx.js.api.ObjectListPresentation;
+import mongofx.js.support.StatementInstrumenter;
+import mongofx.js.support.StatementInstrumenter.InstrumentedScript;
 import mongofx.service.Executor;
 import mongofx.service.MongoDatabase;
 import mongofx.service.MongoService.MongoDbConnection;
+import mongofx.service.OperationContext;
+import mongofx.service.ScriptProfile;
 import mongofx.service.ScriptService;
+import mongofx.service.WorkClass;
+import mongofx.ui.result.text.ResultTextController;
 import mongofx.ui.result.tree.DocumentTreeValue;
 import mongofx.ui.result.tree.ResultTreeController;
+import org.bson.Document;
 import org.reactfx.EventStreams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class QueryTabController {
 
   private static final Logger log = LoggerFactory.getLogger(QueryTabController.class);
+  private static final Duration PRECOMPILE_IDLE_TIMEOUT = Duration.ofMillis(700);
+  private static final long COUNT_MAX_TIME_MS = 5000;
 
   @Inject
   private Executor executor;
@@ -67,6 +85,9 @@ public class QueryTabController {
   @FXML
   private Node queryResultText;
 
+  @FXML
+  private ListView<Document> queryResultList;
+
   private MongoDatabase mongoDatabase;
 
   @FXML
@@ -75,6 +96,15 @@ public class QueryTabController {
   @FXML
   private TextField skipResult;
 
+  @FXML
+  private TextField maxTimeMS;
+
+  @FXML
+  private ToggleButton profileScript;
+
+  @FXML
+  private TableView<ScriptProfile.Row> profileTable;
+
   @FXML
   private ToggleButton viewAsTree;
 
@@ -90,6 +120,9 @@ public class QueryTabController {
   @Inject
   private ResultTreeController resultTreeController;
 
+  @Inject
+  private ResultTextController resultTextController;
+
   @Inject
   private ScriptService scriptService;
 
@@ -102,15 +135,21 @@ public class QueryTabController {
   private final SimpleBooleanProperty showExecTime = new SimpleBooleanProperty();
   private final SimpleBooleanProperty showProgress = new SimpleBooleanProperty();
   private final SimpleStringProperty lastExecTime = new SimpleStringProperty();
+  private final SimpleStringProperty resultCount = new SimpleStringProperty();
 
   private QueryResultHolder queryResult;
 
-  private Task<QueryResultHolder> currentTask;
+  private ExecuteScriptTask currentTask;
+  // last started run, callbacks of older runs are dropped
+  private ExecuteScriptTask latestTask;
 
   @FXML
   protected void initialize() {
     editorFileController = new EditorFileController(uiBuilder, codeArea);
     EventStreams.changesOf(viewToggleGroup.selectedToggleProperty()).subscribe(e -> updateResultListView());
+    // compile buffer in background when user stops typing
+    EventStreams.valuesOf(codeArea.textProperty()).successionEnds(PRECOMPILE_IDLE_TIMEOUT)
+        .subscribe(text -> executor.tryExecute(WorkClass.BACKGROUND, () -> scriptService.precompile(text)));
   }
 
   public void setDb(MongoDbConnection mongoDbConnection, MongoDatabase mongoDatabase, String collectionName) {
@@ -125,6 +164,7 @@ public class QueryTabController {
     }
 
     resultTreeController.initialize(queryResultTree, mongoDatabase);
+    resultTextController.initialize(queryResultList);
 
     queryResultTextController.disableEdit();
 
@@ -154,67 +194,31 @@ public class QueryTabController {
       log.warn("Task already running");
       return;
     }
+    if (executor.isSaturated(WorkClass.INTERACTIVE)) {
+      // run button is disabled, same for shortcut
+      log.warn("Too many scripts waiting, script not started");
+      return;
+    }
 
     final String script = getScript(selected);
     final int skip = getSkip();
     final int limit = getLimit();
 
     startProgress();
+    setResultCount(null);
+
+    OperationContext context = OperationContext.create(getDefaultMaxTimeMS());
+    String evalScript = script;
+    if (profileScript.isSelected()) {
+      InstrumentedScript instrumented = StatementInstrumenter.instrument(script);
+      context.setProfile(new ScriptProfile(instrumented.getStatements()));
+      evalScript = instrumented.getScript();
+    }
+    showProfile(context);
 
-    currentTask = new Task<QueryResultHolder>() {
-      private float scriptEvalTime;
-      private float dataLoadTime;
-      private long startEvalTime;
-
-      @Override
-      protected QueryResultHolder call() throws Exception {
-        startEvalTime = System.currentTimeMillis();
-        Optional<Object> documents = scriptService.eval(mongoDatabase, script);
-        scriptEvalTime = (System.currentTimeMillis() - startEvalTime) / 1000f;
-
-        if (documents.isPresent()) {
-          Object result = documents.get();
-          if (result instanceof ObjectListPresentation) {
-            return processListResult((ObjectListPresentation) result);
-          }
-          return new QueryResultHolder(String.valueOf(result));
-        }
-        return new QueryResultHolder();
-      }
-
-      private QueryResultHolder processListResult(ObjectListPresentation result) {
-        QueryResultHolder queryResultHolder = new QueryResultHolder(result);
-        // preload cache in background
-        dataLoadTime = System.currentTimeMillis();
-        queryResultHolder.getDocuments(queryResultHolder.getSkip().orElse(skip), queryResultHolder.getLimit().orElse(limit));
-        dataLoadTime = (System.currentTimeMillis() - dataLoadTime) / 1000f;
-        return queryResultHolder;
-      }
-
-      @Override
-      protected void failed() {
-        setLastExecTime(String.format("%.3f sec.", (System.currentTimeMillis() - startEvalTime) / 1000f));
-        Throwable e = getException();
-        showOnlyText(e.getMessage());
-        log.warn("Error execute script", e);
-      }
-
-      @Override
-      protected void succeeded() {
-        queryResult = getValue();
-        buildResultView();
-        setLastExecTime(
-            String.format("%.3f sec.", scriptEvalTime + dataLoadTime));
-      }
-
-      @Override
-      protected void done() {
-        stopProgress();
-        currentTask = null;
-      }
-    };
-
-    executor.executeMany(currentTask);
+    currentTask = new ExecuteScriptTask(evalScript, skip, limit, context);
+    latestTask = currentTask;
+    executor.execute(WorkClass.INTERACTIVE, currentTask);
   }
 
   private String getScript(boolean selected) {
@@ -236,15 +240,75 @@ public class QueryTabController {
     setShowExecTime(true);
   }
 
+  /**
+   * Profile table is shown only for profiled run
+   */
+  private void showProfile(OperationContext context) {
+    Optional<ScriptProfile> profile = context.getProfile();
+    profileTable.getItems().setAll(profile.map(ScriptProfile::getRows).orElse(new ArrayList<>()));
+    profileTable.setVisible(profile.isPresent());
+    profileTable.setManaged(profile.isPresent());
+  }
+
   private void startProgress() {
     setShowExecTime(false);
     setShowProgress(true);
   }
 
+  /**
+   * @return maxTimeMS of tab applied to queries without own limit, null if not set
+   */
+  private Long getDefaultMaxTimeMS() {
+    String text = maxTimeMS.getText();
+    if (text == null || text.isEmpty() || Long.parseLong(text) == 0) {
+      return null;
+    }
+    return Long.parseLong(text);
+  }
+
   @FXML
   public void stopEval() {
-    if (currentTask != null) {
-      currentTask.cancel();
+    ExecuteScriptTask task = currentTask;
+    if (task == null) {
+      return;
+    }
+    task.cancel();
+    // script may wait for server, so cursors are closed and operations are killed on server too
+    OperationContext context = task.getContext();
+    context.cancel();
+    context.getTag().ifPresent(this::startKillOperations);
+  }
+
+  /**
+   * Kill runs in control class, so it is not queued behind metadata loads or stuck interactive scripts
+   */
+  private void startKillOperations(String tag) {
+    executor.execute(WorkClass.CONTROL, () -> killOperations(tag));
+  }
+
+  private void killOperations(String tag) {
+    try {
+      int killed = mongoDatabase.getMongoConnection().killOperations(tag);
+      if (killed > 0) {
+        log.info("Killed {} operations of stopped script", killed);
+      }
+    }
+    catch (MongoException e) {
+      log.warn("Can't kill operations of stopped script", e);
+    }
+  }
+
+  /**
+   * Called when tab closed
+   */
+  public void close() {
+    stopEval();
+    closeQueryResult();
+  }
+
+  private void closeQueryResult() {
+    if (queryResult != null) {
+      queryResult.close();
     }
   }
 
@@ -263,6 +327,7 @@ public class QueryTabController {
 
   private void showOnlyText(String text) {
     setViewModeVisible(false);
+    setResultCount(null);
     if (text == null) {
       text = "Empty result";
     }
@@ -279,27 +344,47 @@ public class QueryTabController {
           queryResult.getCollectionName());
       showTree();
     } else {
-      queryResultTextController.replaceText(queryResult.getListPresentationString(getSkip(), getLimit()));
-      queryResultTextController.selectRange(0);
-      showText();
+      resultTextController.showDocuments(queryResult.getDocuments(getSkip(), getLimit()));
+      showList();
     }
+    queryResult.prefetch(getSkip(), getLimit());
   }
 
   private void showText() {
     resultTreeController.hide();
+    resultTextController.hide();
+    resultTextController.clear();
     queryResultText.setVisible(true);
   }
 
+  private void showList() {
+    resultTreeController.hide();
+    queryResultTextController.clear();
+    queryResultText.setVisible(false);
+    resultTextController.show();
+  }
+
   private void showTree() {
     resultTreeController.show();
     queryResultTextController.clear();
     queryResultText.setVisible(false);
+    resultTextController.hide();
+    resultTextController.clear();
   }
 
   private void setViewModeVisible(boolean b) {
     setShowObjectListControls(b);
   }
 
+  /**
+   * View can't be switched while documents are appended to it, otherwise page would be queried again and rest of
+   * stream appended to the other view
+   */
+  private void setViewToggleDisabled(boolean disabled) {
+    viewAsTree.setDisable(disabled);
+    viewAsText.setDisable(disabled);
+  }
+
   public void startTab() {
     String text = codeArea.getText();
     int startIdx = text.indexOf("{");
@@ -422,4 +507,191 @@ public class QueryTabController {
   public final void setLastExecTime(final java.lang.String lastExecTime) {
     this.lastExecTimeProperty().set(lastExecTime);
   }
+
+  public final SimpleStringProperty resultCountProperty() {
+    return this.resultCount;
+  }
+
+  public final String getResultCount() {
+    return this.resultCountProperty().get();
+  }
+
+  public final void setResultCount(final String resultCount) {
+    this.resultCountProperty().set(resultCount);
+  }
+
+  private class ExecuteScriptTask extends Task<QueryResultHolder> {
+    private final String script;
+    private final int skip;
+    private final int limit;
+    private final OperationContext context;
+
+    private float scriptEvalTime;
+    private float dataLoadTime;
+    private long startEvalTime;
+    private volatile long firstRowTime;
+
+    // documents are shown while page is loading, batches coalesced to one FX update
+    private final ConcurrentLinkedQueue<List<Document>> pendingDocuments = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile QueryResultHolder streamingResult;
+    private int streamingSkip;
+    private int streamingLimit;
+    private boolean streamStarted = false;
+
+    public ExecuteScriptTask(String script, int skip, int limit, OperationContext context) {
+      this.script = script;
+      this.skip = skip;
+      this.limit = limit;
+      this.context = context;
+    }
+
+    public OperationContext getContext() {
+      return context;
+    }
+
+    @Override
+    protected QueryResultHolder call() throws Exception {
+      context.attach();
+      try {
+        return evalScript();
+      }
+      finally {
+        context.getProfile().ifPresent(ScriptProfile::finish);
+        context.detach();
+      }
+    }
+
+    private QueryResultHolder evalScript() throws Exception {
+      startEvalTime = System.currentTimeMillis();
+      Optional<Object> documents = scriptService.eval(mongoDatabase, script);
+      scriptEvalTime = (System.currentTimeMillis() - startEvalTime) / 1000f;
+
+      if (documents.isPresent()) {
+        Object result = documents.get();
+        if (result instanceof ObjectListPresentation) {
+          return processListResult((ObjectListPresentation) result);
+        }
+        return new QueryResultHolder(String.valueOf(result));
+      }
+      return new QueryResultHolder();
+    }
+
+    private QueryResultHolder processListResult(ObjectListPresentation result) {
+      context.getProfile().ifPresent(ScriptProfile::enterResultLoading);
+      QueryResultHolder queryResultHolder = new QueryResultHolder(result, executor);
+      // preload cache in background
+      dataLoadTime = System.currentTimeMillis();
+      streamingSkip = queryResultHolder.getSkip().orElse(skip);
+      streamingLimit = queryResultHolder.getLimit().orElse(limit);
+      streamingResult = queryResultHolder;
+      // count runs concurrently with first page
+      queryResultHolder.count(COUNT_MAX_TIME_MS, count -> Platform.runLater(() -> showCount(count)));
+      queryResultHolder.getDocuments(streamingSkip, streamingLimit, this::onDocumentsLoaded);
+      dataLoadTime = (System.currentTimeMillis() - dataLoadTime) / 1000f;
+      queryResultHolder.prefetch(streamingSkip, streamingLimit);
+      return queryResultHolder;
+    }
+
+    private void showCount(ResultCount count) {
+      if (latestTask == this) {
+        setResultCount("Total: " + count);
+      }
+    }
+
+    private void onDocumentsLoaded(List<Document> documents) {
+      if (firstRowTime == 0) {
+        firstRowTime = System.currentTimeMillis();
+      }
+      pendingDocuments.add(documents);
+      if (drainScheduled.compareAndSet(false, true)) {
+        Platform.runLater(this::showPendingDocuments);
+      }
+    }
+
+    private void showPendingDocuments() {
+      drainScheduled.set(false);
+      if (isCancelled()) {
+        return;
+      }
+
+      List<Document> documents = new ArrayList<>();
+      List<Document> batch;
+      while ((batch = pendingDocuments.poll()) != null) {
+        documents.addAll(batch);
+      }
+      if (documents.isEmpty()) {
+        return;
+      }
+
+      if (!streamStarted) {
+        startStreamView();
+      }
+      if (viewAsTree.isSelected()) {
+        resultTreeController.appendDocuments(documents);
+      } else {
+        resultTextController.appendDocuments(documents);
+      }
+    }
+
+    private void startStreamView() {
+      streamStarted = true;
+      closeQueryResult();
+      queryResult = streamingResult;
+      skipResult.setText(String.valueOf(streamingSkip));
+      limitResult.setText(String.valueOf(streamingLimit));
+      setViewModeVisible(true);
+      setViewToggleDisabled(true);
+
+      if (viewAsTree.isSelected()) {
+        resultTreeController.startDocuments(queryResult.getCollectionName());
+        showTree();
+      } else {
+        resultTextController.startDocuments();
+        showList();
+      }
+    }
+
+    private void finishStreamView() {
+      showPendingDocuments();
+    }
+
+    @Override
+    protected void failed() {
+      setLastExecTime(String.format("%.3f sec.", (System.currentTimeMillis() - startEvalTime) / 1000f));
+      Throwable e = getException();
+      showOnlyText(e.getMessage());
+      showProfile(context);
+      log.warn("Error execute script", e);
+    }
+
+    @Override
+    protected void succeeded() {
+      if (streamStarted) {
+        finishStreamView();
+      } else {
+        closeQueryResult();
+        queryResult = getValue();
+        buildResultView();
+      }
+
+      String execTime = String.format("%.3f sec.", scriptEvalTime + dataLoadTime);
+      if (firstRowTime != 0) {
+        execTime += String.format(" (first row %.3f sec.)", (firstRowTime - startEvalTime) / 1000f);
+      }
+      long savedBytes = queryResult.getSharedStringsSavedBytes();
+      if (savedBytes > 0) {
+        execTime += ", shared strings saved " + DocumentUtils.bytesIntoHumanReadable(savedBytes);
+      }
+      setLastExecTime(execTime);
+      showProfile(context);
+    }
+
+    @Override
+    protected void done() {
+      stopProgress();
+      setViewToggleDisabled(false);
+      currentTask = null;
+    }
+  }
 }
@@ -0,0 +1,68 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.main;
+
+/**
+ * Number of documents in result, may be known only approximately
+ */
+public class ResultCount {
+  public enum Accuracy {
+    EXACT, AT_MOST, AT_LEAST
+  }
+
+  private final long count;
+  private final Accuracy accuracy;
+
+  private ResultCount(long count, Accuracy accuracy) {
+    this.count = count;
+    this.accuracy = accuracy;
+  }
+
+  public static ResultCount exact(long count) {
+    return new ResultCount(count, Accuracy.EXACT);
+  }
+
+  public static ResultCount atMost(long count) {
+    return new ResultCount(count, Accuracy.AT_MOST);
+  }
+
+  public static ResultCount atLeast(long count) {
+    return new ResultCount(count, Accuracy.AT_LEAST);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public Accuracy getAccuracy() {
+    return accuracy;
+  }
+
+  @Override
+  public String toString() {
+    switch (accuracy) {
+      case AT_MOST:
+        return "≤ " + count;
+      case AT_LEAST:
+        return "≥ " + count;
+      default:
+        return String.valueOf(count);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.result.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import mongofx.ui.main.DocumentUtils;
+
+/**
+ * Cell of text result view. Document formatted and highlighted only when cell become visible
+ */
+public class JsonDocumentCell extends ListCell<Document> {
+
+  @Override
+  protected void updateItem(Document item, boolean empty) {
+    super.updateItem(item, empty);
+    setText(null);
+    if (empty || item == null) {
+      setGraphic(null);
+    } else {
+      TextFlow flow = new TextFlow();
+      flow.getChildren().addAll(highlight(DocumentUtils.formatJson(item)));
+      setGraphic(flow);
+    }
+  }
+
+  /**
+   * Split formatted json into styled parts, same style classes as in editor are used
+   */
+  static List<Text> highlight(String json) {
+    List<Text> parts = new ArrayList<>();
+    StringBuilder plain = new StringBuilder();
+    int i = 0;
+    while (i < json.length()) {
+      char c = json.charAt(i);
+      String styleClass = null;
+      int end = i + 1;
+      if (c == '"') {
+        styleClass = "string";
+        end = findStringEnd(json, i);
+      } else if (c == '{' || c == '}') {
+        styleClass = "brace";
+      } else if (c == '[' || c == ']') {
+        styleClass = "bracket";
+      } else if (c == '(' || c == ')') {
+        styleClass = "paren";
+      }
+
+      if (styleClass == null) {
+        plain.append(c);
+      } else {
+        addPlain(parts, plain);
+        Text text = new Text(json.substring(i, end));
+        text.getStyleClass().add(styleClass);
+        parts.add(text);
+      }
+      i = end;
+    }
+    addPlain(parts, plain);
+    return parts;
+  }
+
+  private static int findStringEnd(String json, int start) {
+    int i = start + 1;
+    while (i < json.length()) {
+      char c = json.charAt(i);
+      if (c == '\\') {
+        i += 2;
+        continue;
+      }
+      i++;
+      if (c == '"') {
+        break;
+      }
+    }
+    return Math.min(i, json.length());
+  }
+
+  private static void addPlain(List<Text> parts, StringBuilder plain) {
+    if (plain.length() > 0) {
+      parts.add(new Text(plain.toString()));
+      plain.setLength(0);
+    }
+  }
+}
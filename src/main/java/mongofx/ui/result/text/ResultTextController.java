@@ -0,0 +1,121 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.result.text;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+
+import com.google.inject.Inject;
+
+import javafx.event.ActionEvent;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import mongofx.service.Executor;
+import mongofx.service.WorkClass;
+import mongofx.ui.main.DocumentUtils;
+
+/**
+ * Text presentation of result, one list cell per document so only visible documents are formatted
+ */
+public class ResultTextController {
+  private static KeyCombination copyKeyCombination = KeyCombination.keyCombination("Ctrl+C");
+
+  @Inject
+  private Executor executor;
+
+  private ListView<Document> queryResultList;
+
+  public void initialize(ListView<Document> queryResultList) {
+    this.queryResultList = queryResultList;
+    queryResultList.setCellFactory(lv -> new JsonDocumentCell());
+    queryResultList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+    queryResultList.setOnKeyPressed(this::onKeyPressed);
+
+    MenuItem copyJson = new MenuItem("Copy JSON");
+    copyJson.setAccelerator(copyKeyCombination);
+    copyJson.setOnAction(this::copyJson);
+    queryResultList.setContextMenu(new ContextMenu(copyJson));
+  }
+
+  private void onKeyPressed(KeyEvent ev) {
+    if (copyKeyCombination.match(ev)) {
+      copyJson();
+    }
+  }
+
+  private void copyJson(ActionEvent ev) {
+    copyJson();
+  }
+
+  private void copyJson() {
+    List<Document> selected = queryResultList.getSelectionModel().getSelectedItems();
+    if (selected.isEmpty()) {
+      return;
+    }
+
+    String json;
+    if (selected.size() == 1) {
+      json = DocumentUtils.formatJson(selected.get(0));
+    } else {
+      json = DocumentUtils.formatJson(selected).stream().collect(Collectors.joining(",\n", "[", "]"));
+    }
+    ClipboardContent content = new ClipboardContent();
+    content.putString(json);
+    Clipboard.getSystemClipboard().setContent(content);
+  }
+
+  public void showDocuments(List<Document> documents) {
+    startDocuments();
+    appendDocuments(documents);
+  }
+
+  /**
+   * Start new empty result, documents added with {@link #appendDocuments(List)}
+   */
+  public void startDocuments() {
+    queryResultList.getItems().clear();
+    queryResultList.scrollTo(0);
+  }
+
+  public void appendDocuments(List<Document> documents) {
+    queryResultList.getItems().addAll(documents);
+    // format in background so scrolling hits formatter cache
+    executor.tryExecute(WorkClass.BACKGROUND, () -> DocumentUtils.formatJson(documents));
+  }
+
+  public void clear() {
+    queryResultList.getItems().clear();
+  }
+
+  public void hide() {
+    queryResultList.setVisible(false);
+  }
+
+  public void show() {
+    queryResultList.setVisible(true);
+  }
+}
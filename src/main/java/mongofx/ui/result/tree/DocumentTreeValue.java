@@ -30,10 +30,23 @@ import org.bson.types.ObjectId;
 public class DocumentTreeValue {
   private final Object value;
   private final String key;
+  private final boolean synthetic;
 
   public DocumentTreeValue(String key, Object value) {
+    this(key, value, false);
+  }
+
+  private DocumentTreeValue(String key, Object value, boolean synthetic) {
     this.key = key;
     this.value = value;
+    this.synthetic = synthetic;
+  }
+
+  /**
+   * Value of node that is not a document field, like range of array elements
+   */
+  public static DocumentTreeValue synthetic(String key, Object value) {
+    return new DocumentTreeValue(key, value, true);
   }
 
   public Document getDocument() {
@@ -85,7 +98,7 @@ public class DocumentTreeValue {
   }
 
   public String getTypeDescription() {
-    if (value != null) {
+    if (value != null && !synthetic) {
       return value.getClass().getSimpleName();
     }
     return null;
@@ -94,4 +107,8 @@ public class DocumentTreeValue {
   public boolean isTopLevel() {
     return key == null;
   }
+
+  public boolean isSynthetic() {
+    return synthetic;
+  }
 }
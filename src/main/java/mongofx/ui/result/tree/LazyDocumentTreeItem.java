@@ -0,0 +1,164 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.result.tree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.bson.Document;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+/**
+ * Tree item of result document, children are created on first access. Big arrays are split to range nodes.
+ */
+public class LazyDocumentTreeItem extends TreeItem<DocumentTreeValue> {
+  static final int ARRAY_CHUNK_SIZE = 1000;
+
+  private final NodeBudget budget;
+  // index of first element, used by array range nodes
+  private final int indexOffset;
+  private boolean loaded = false;
+
+  public LazyDocumentTreeItem(DocumentTreeValue value, NodeBudget budget) {
+    this(value, budget, 0);
+  }
+
+  private LazyDocumentTreeItem(DocumentTreeValue value, NodeBudget budget, int indexOffset) {
+    super(value);
+    this.budget = budget;
+    this.indexOffset = indexOffset;
+  }
+
+  @Override
+  public boolean isLeaf() {
+    Object value = getValue().getValue();
+    if (value instanceof Document) {
+      return ((Document) value).isEmpty();
+    }
+    if (value instanceof List) {
+      return ((List<?>) value).isEmpty();
+    }
+    return true;
+  }
+
+  @Override
+  public ObservableList<TreeItem<DocumentTreeValue>> getChildren() {
+    ObservableList<TreeItem<DocumentTreeValue>> children = super.getChildren();
+    if (!loaded) {
+      loaded = true;
+      children.setAll(buildChildren());
+    }
+    return children;
+  }
+
+  private List<TreeItem<DocumentTreeValue>> buildChildren() {
+    Object value = getValue().getValue();
+    if (value instanceof Document) {
+      return buildFieldItems((Document) value);
+    }
+    if (value instanceof List) {
+      List<?> items = (List<?>) value;
+      if (items.size() > ARRAY_CHUNK_SIZE) {
+        return buildRangeItems(items);
+      }
+      return buildElementItems(items);
+    }
+    return new ArrayList<>();
+  }
+
+  private List<TreeItem<DocumentTreeValue>> buildFieldItems(Document document) {
+    int allowed = budget.take(document.size());
+    List<TreeItem<DocumentTreeValue>> children = new ArrayList<>(allowed);
+    Iterator<Entry<String, Object>> fields = document.entrySet().iterator();
+    for (int i = 0; i < allowed; i++) {
+      Entry<String, Object> field = fields.next();
+      children.add(new LazyDocumentTreeItem(new DocumentTreeValue(field.getKey(), field.getValue()), budget));
+    }
+    addLimitReached(children, document.size() - allowed);
+    return children;
+  }
+
+  private List<TreeItem<DocumentTreeValue>> buildElementItems(List<?> items) {
+    int allowed = budget.take(items.size());
+    List<TreeItem<DocumentTreeValue>> children = new ArrayList<>(allowed);
+    for (int i = 0; i < allowed; i++) {
+      children.add(new LazyDocumentTreeItem(new DocumentTreeValue(String.valueOf(indexOffset + i), items.get(i)), budget));
+    }
+    addLimitReached(children, items.size() - allowed);
+    return children;
+  }
+
+  /**
+   * Split array to ranges, range size is chosen so one level has no more than ARRAY_CHUNK_SIZE ranges
+   */
+  private List<TreeItem<DocumentTreeValue>> buildRangeItems(List<?> items) {
+    long rangeSize = ARRAY_CHUNK_SIZE;
+    while (items.size() > rangeSize * ARRAY_CHUNK_SIZE) {
+      rangeSize *= ARRAY_CHUNK_SIZE;
+    }
+
+    int rangeCount = (int) ((items.size() + rangeSize - 1) / rangeSize);
+    int allowed = budget.take(rangeCount);
+    List<TreeItem<DocumentTreeValue>> children = new ArrayList<>(allowed);
+    for (int i = 0; i < allowed; i++) {
+      int from = (int) (i * rangeSize);
+      int to = (int) Math.min(items.size(), from + rangeSize);
+      String key = String.format("[%d..%d]", indexOffset + from, indexOffset + to - 1);
+      children.add(new LazyDocumentTreeItem(DocumentTreeValue.synthetic(key, items.subList(from, to)), budget,
+          indexOffset + from));
+    }
+    addLimitReached(children, rangeCount - allowed);
+    return children;
+  }
+
+  private void addLimitReached(List<TreeItem<DocumentTreeValue>> children, int notShown) {
+    if (notShown > 0) {
+      children.add(new TreeItem<>(DocumentTreeValue.synthetic("...",
+          String.format("%d more items not shown, result tree node limit reached", notShown))));
+    }
+  }
+
+  /**
+   * Limit of tree nodes created for one result
+   */
+  public static class NodeBudget {
+    private int remaining;
+
+    public NodeBudget(int limit) {
+      this.remaining = limit;
+    }
+
+    /**
+     * @return number of nodes allowed to create
+     */
+    public int take(int requested) {
+      int allowed = Math.max(0, Math.min(requested, remaining));
+      remaining -= allowed;
+      return allowed;
+    }
+
+    public int getRemaining() {
+      return remaining;
+    }
+  }
+}
@@ -19,7 +19,6 @@
 package mongofx.ui.result.tree;
 
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 import mongofx.ui.msg.PopupService;
@@ -53,6 +52,7 @@ public class ResultTreeController {
   private static final Logger log = LoggerFactory.getLogger(ResultTreeController.class);
 
   private static KeyCombination copyValueKeyCombination = KeyCombination.keyCombination("Ctrl+C");
+  private static final int RESULT_NODE_LIMIT = 200_000;
 
   @Inject
   private UIBuilder uiBuilder;
@@ -66,6 +66,7 @@ public class ResultTreeController {
   private MongoDatabase mongoDatabase;
   private ContextMenu childContextMenu;
   private String collectionName;
+  private LazyDocumentTreeItem.NodeBudget nodeBudget;
 
   public ResultTreeController() {
     buildTopLevelContextMenu();
@@ -107,7 +108,7 @@ public class ResultTreeController {
         break;
       }
 
-      if (isParentList(selectedItem)) {
+      if (value.isSynthetic() || isParentList(selectedItem)) {
         continue;
       }
 
@@ -231,50 +232,30 @@ public class ResultTreeController {
   }
 
   public void buildTreeFromDocuments(List<Document> documents, String collectionName) {
-    this.collectionName = collectionName;
-
-    TreeItem<DocumentTreeValue> root = new TreeItem<>();
-    root.getChildren().addAll(documents.stream().map(d -> new TreeItem<>(new DocumentTreeValue(null, d)))
-        .peek(this::buildChilds).collect(Collectors.toList()));
-
-    // always exapnd first document
-    if (!documents.isEmpty()) {
-      root.getChildren().get(0).setExpanded(true);
-    }
-
-    queryResultTree.setRoot(root);
+    startDocuments(collectionName);
+    appendDocuments(documents);
   }
 
-  private void buildChilds(TreeItem<DocumentTreeValue> i) {
-    Object value = i.getValue().getValue();
-    if (value instanceof Document) {
-      i.getChildren()
-      .addAll(((Document) value).entrySet().stream().map(this::mapFieldToItem).collect(Collectors.toList()));
-    }
+  /**
+   * Start new empty result, documents added with {@link #appendDocuments(List)}
+   */
+  public void startDocuments(String collectionName) {
+    this.collectionName = collectionName;
+    nodeBudget = new LazyDocumentTreeItem.NodeBudget(RESULT_NODE_LIMIT);
+    queryResultTree.setRoot(new TreeItem<>());
   }
 
-  @SuppressWarnings("unchecked")
-  private TreeItem<DocumentTreeValue> mapFieldToItem(Entry<String, Object> f) {
-    Object value = f.getValue();
-    if (value instanceof Document) {
-      TreeItem<DocumentTreeValue> root = new TreeItem<>(new DocumentTreeValue(f.getKey(), value));
-      buildChilds(root);
-      return root;
-    }
-    if (value instanceof List) {
-      TreeItem<DocumentTreeValue> root = new TreeItem<>(new DocumentTreeValue(f.getKey(), value));
-      buildTreeFromArray(root, (List<Object>)value);
-      return root;
-    }
-    return new TreeItem<>(new DocumentTreeValue(f.getKey(), f.getValue()));
-  }
+  public void appendDocuments(List<Document> documents) {
+    TreeItem<DocumentTreeValue> root = queryResultTree.getRoot();
+    boolean first = root.getChildren().isEmpty();
+    // documents of page are always shown, but use budget of nested nodes
+    nodeBudget.take(documents.size());
+    root.getChildren().addAll(documents.stream().map(d -> new LazyDocumentTreeItem(new DocumentTreeValue(null, d), nodeBudget))
+        .collect(Collectors.toList()));
 
-  private void buildTreeFromArray(TreeItem<DocumentTreeValue> root, List<Object> documents) {
-    for (int i = 0; i < documents.size(); i++) {
-      Object item = documents.get(i);
-      TreeItem<DocumentTreeValue> treeItem = new TreeItem<>(new DocumentTreeValue(String.valueOf(i), item));
-      root.getChildren().add(treeItem);
-      buildChilds(treeItem);
+    // always exapnd first document
+    if (first && !documents.isEmpty()) {
+      root.getChildren().get(0).setExpanded(true);
     }
   }
 
@@ -293,7 +274,7 @@ public class ResultTreeController {
     }
     Document toEdit = new Document(oldDoc);
     toEdit.remove("_id");
-    uiBuilder.editDocument(DocumentUtils.formatJson(toEdit), 2).ifPresent(newJson -> updateObject(Document.parse(newJson), id));
+    uiBuilder.editDocument(DocumentUtils.formatJsonUncached(toEdit), 2).ifPresent(newJson -> updateObject(Document.parse(newJson), id));
   }
 
   private TreeItem<DocumentTreeValue> getTopLevelItem(TreeItem<DocumentTreeValue> selectedItem) {
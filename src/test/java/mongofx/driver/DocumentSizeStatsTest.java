@@ -0,0 +1,51 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DocumentSizeStatsTest {
+
+  @Test
+  public void testUnknownSizeUsesLimit() {
+    assertEquals(500, new DocumentSizeStats().batchSizeFor(500));
+  }
+
+  @Test
+  public void testLargeDocumentsLimitedByBudget() {
+    DocumentSizeStats stats = new DocumentSizeStats();
+    stats.seed(1024 * 1024);
+
+    assertEquals(4, stats.batchSizeFor(20));
+    assertEquals(1, stats.batchSizeFor(1));
+  }
+
+  @Test
+  public void testObservedSizeReplacesSeed() {
+    DocumentSizeStats stats = new DocumentSizeStats();
+    stats.seed(1024 * 1024);
+    stats.record(100);
+    stats.seed(1024 * 1024);
+
+    assertEquals(100, stats.getAverage());
+    assertEquals(500, stats.batchSizeFor(500));
+  }
+}
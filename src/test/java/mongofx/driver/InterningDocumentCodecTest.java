@@ -0,0 +1,82 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWrapper;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import com.mongodb.MongoClient;
+
+public class InterningDocumentCodecTest {
+  private static final CodecRegistry REGISTRY = MongoClient.getDefaultCodecRegistry();
+
+  private static Document decode(InterningDocumentCodec codec, Document document) {
+    return codec.decode(new BsonDocumentReader(BsonDocumentWrapper.asBsonDocument(document, REGISTRY)),
+        DecoderContext.builder().build());
+  }
+
+  @Test
+  public void testDecodedSameAsDocumentCodec() {
+    Document original = new Document("_id", new ObjectId()).append("date", new Date(0)).append("uuid", UUID.randomUUID())
+        .append("nested", new Document("list", Arrays.asList(1, "two", new Document("x", null))));
+
+    assertEquals(original, decode(new InterningDocumentCodec(REGISTRY, new FieldNameDictionary()), original));
+  }
+
+  @Test
+  public void testFieldNamesShared() {
+    FieldNameDictionary dictionary = new FieldNameDictionary();
+    InterningDocumentCodec codec = new InterningDocumentCodec(REGISTRY, dictionary);
+
+    Document first = decode(codec, new Document("name", "value").append("status", "active"));
+    Document second = decode(codec, new Document("name", "other").append("status", "active"));
+
+    assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    assertSame(first.get("status"), second.get("status"));
+    assertTrue(dictionary.getSavedBytes() > 0);
+  }
+
+  @Test
+  public void testUniqueValuesDoNotFillNames() {
+    FieldNameDictionary dictionary = new FieldNameDictionary();
+    InterningDocumentCodec codec = new InterningDocumentCodec(REGISTRY, dictionary);
+
+    for (int i = 0; i < 20000; i++) {
+      decode(codec, new Document("email", "user" + i + "@example.com"));
+    }
+    Document first = decode(codec, new Document("late", 1));
+    Document second = decode(codec, new Document("late", 2));
+
+    assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    assertEquals(2, dictionary.size());
+  }
+}
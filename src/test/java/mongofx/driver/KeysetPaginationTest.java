@@ -0,0 +1,111 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.client.MongoCursor;
+
+import mongofx.js.api.JsApiUtils.SimpleIteratorMongoCursor;
+
+public class KeysetPaginationTest {
+
+  @Test
+  public void testNaturalOrderPagedById() {
+    KeysetPagination keyset = KeysetPagination.create(null).get();
+    assertEquals(new BasicDBObject("_id", 1), keyset.getSort());
+
+    BasicDBObject filter = keyset.buildFilter(new BasicDBObject(), Arrays.asList(10));
+    BasicDBList or = (BasicDBList) filter.get("$or");
+    assertEquals(new BasicDBObject("_id", new BasicDBObject("$gt", 10)), or.get(0));
+    // ids of types sorted after numbers
+    assertTrue(or.contains(new BasicDBObject("_id", new BasicDBObject("$type", "string"))));
+    assertTrue(or.contains(new BasicDBObject("_id", new BasicDBObject("$type", "objectId"))));
+    assertFalse(or.contains(new BasicDBObject("_id", null)));
+  }
+
+  @Test
+  public void testNotUniqueSortNotSupported() {
+    assertFalse(KeysetPagination.create(new BasicDBObject("a", 1)).isPresent());
+    assertTrue(KeysetPagination.create(new BasicDBObject("a", 1).append("_id", -1)).isPresent());
+  }
+
+  @Test
+  public void testCompoundSortFilter() {
+    KeysetPagination keyset = KeysetPagination.create(new BasicDBObject("a", -1).append("_id", 1)).get();
+    BasicDBObject filter = keyset.buildFilter(new BasicDBObject("x", 1), Arrays.asList(5, 7));
+
+    BasicDBList and = (BasicDBList) filter.get("$and");
+    assertEquals(new BasicDBObject("x", 1), and.get(0));
+    BasicDBList or = (BasicDBList) ((BasicDBObject) and.get(1)).get("$or");
+    assertEquals(new BasicDBObject("a", new BasicDBObject("$lt", 5)), or.get(0));
+    assertTrue(or.contains(new BasicDBObject("a", 5).append("_id", new BasicDBObject("$gt", 7))));
+    assertTrue(or.contains(new BasicDBObject("a", 5).append("_id", new BasicDBObject("$type", "string"))));
+  }
+
+  @Test
+  public void testNullKeysAfterBoundaryOfDescendingSort() {
+    KeysetPagination keyset = KeysetPagination.create(new BasicDBObject("a", -1).append("_id", 1)).get();
+    BasicDBList or = (BasicDBList) keyset.buildFilter(null, Arrays.asList("x", 7)).get("$or");
+    // null and missing keys, numbers are sorted before strings
+    assertTrue(or.contains(new BasicDBObject("a", null)));
+    assertTrue(or.contains(new BasicDBObject("a", new BasicDBObject("$type", "number"))));
+    assertFalse(or.contains(new BasicDBObject("a", new BasicDBObject("$type", "objectId"))));
+  }
+
+  @Test
+  public void testNoBoundaryForNullOrArrayKey() {
+    KeysetPagination keyset = KeysetPagination.create(new BasicDBObject("a", 1).append("_id", 1)).get();
+    assertFalse(keyset.extractKey(new Document("_id", 1)).isPresent());
+    assertFalse(keyset.extractKey(new Document("_id", 1).append("a", Arrays.asList(1, 2))).isPresent());
+    assertEquals(Arrays.asList("x", 1), keyset.extractKey(new Document("_id", 1).append("a", "x")).get());
+  }
+
+  @Test
+  public void testBoundaryRecordedOnClose() {
+    KeysetPagination keyset = KeysetPagination.create(new BasicDBObject("a.b", 1).append("_id", 1)).get();
+    List<Document> page = Arrays.asList(
+        new Document("_id", 1).append("a", new Document("b", "x")),
+        new Document("_id", 2).append("a", new Document("b", "y")));
+
+    keyset.track(new SimpleIteratorMongoCursor(page.iterator()), 10).forEachRemaining(d -> {});
+    assertFalse(keyset.findBoundary(11).isPresent());
+
+    try (MongoCursor<Document> cursor =
+        keyset.track(new SimpleIteratorMongoCursor(page.iterator()), 10)) {
+      cursor.forEachRemaining(d -> {});
+    }
+    Optional<Entry<Integer, List<Object>>> boundary = keyset.findBoundary(15);
+    assertTrue(boundary.isPresent());
+    assertEquals(Integer.valueOf(12), boundary.get().getKey());
+    assertEquals(Arrays.asList("y", 2), boundary.get().getValue());
+  }
+}
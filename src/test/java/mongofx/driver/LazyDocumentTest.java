@@ -0,0 +1,80 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+public class LazyDocumentTest {
+
+  private static LazyDocument lazy(Document document) {
+    return new LazyDocument(new RawBsonDocument(document, new DocumentCodec()));
+  }
+
+  private static Document sample() {
+    return new Document("_id", new ObjectId()).append("date", new Date(0)).append("name", "test")
+        .append("nested", new Document("a", 1L)).append("list", Arrays.asList(1, "two"));
+  }
+
+  @Test
+  public void testFieldAccessDoesNotDecodeDocument() {
+    Document original = sample();
+    LazyDocument document = lazy(original);
+
+    assertEquals(5, document.size());
+    assertEquals("test", document.get("name"));
+    assertEquals(original.get("date"), document.get("date"));
+    assertTrue(document.get("nested") instanceof LazyDocument);
+    assertEquals(1L, ((Document) document.get("nested")).get("a"));
+    assertNull(document.get("missing"));
+    assertFalse(document.isDecoded());
+  }
+
+  @Test
+  public void testIterationDecodesInOrder() {
+    Document original = sample();
+    LazyDocument document = lazy(original);
+
+    assertEquals(original.keySet().toString(), document.keySet().toString());
+    assertTrue(document.isDecoded());
+    assertEquals(original.toJson(), document.toJson());
+  }
+
+  @Test
+  public void testModification() {
+    LazyDocument document = lazy(sample());
+    document.get("name");
+    document.put("name", "changed");
+    document.remove("list");
+
+    assertEquals("changed", document.get("name"));
+    assertEquals(4, document.size());
+  }
+}
@@ -0,0 +1,51 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.js.api;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mongofx.driver.DocumentSizeStats;
+
+public class FindResultIterableTest {
+
+  @Test
+  public void testPageOfLargeDocumentsLimitedByBudget() {
+    DocumentSizeStats stats = new DocumentSizeStats();
+    stats.seed(1024 * 1024);
+
+    // continuation and keyset cursors read page of 500 documents
+    assertEquals(4, FindResultIterable.firstBatchSize(null, stats, 500));
+  }
+
+  @Test
+  public void testUserBatchSizeHasPriority() {
+    DocumentSizeStats stats = new DocumentSizeStats();
+    stats.seed(1024 * 1024);
+
+    assertEquals(50, FindResultIterable.firstBatchSize(50, stats, 500));
+  }
+
+  @Test
+  public void testUnknownPageKeepsDriverDefault() {
+    assertEquals(0, FindResultIterable.firstBatchSize(null, new DocumentSizeStats(), 0));
+    assertEquals(200, FindResultIterable.firstBatchSize(null, new DocumentSizeStats(), 200));
+  }
+}
@@ -0,0 +1,34 @@
+package mongofx.js.support;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mongofx.js.support.StatementInstrumenter.InstrumentedScript;
+
+public class StatementInstrumenterTest {
+
+  @Test
+  public void markerBeforeEachStatementTest() {
+    InstrumentedScript script = StatementInstrumenter.instrument("var a = 1\ndb.test.find({a: a})");
+    assertEquals(";if (__profiler.enter(0)) {}var a = 1\n;if (__profiler.enter(1)) {}db.test.find({a: a})",
+        script.getScript());
+    assertEquals(2, script.getStatements().size());
+    assertEquals(2, script.getStatements().get(1).getLine());
+    assertEquals("db.test.find({a: a})", script.getStatements().get(1).getText());
+  }
+
+  @Test
+  public void functionDeclarationNotMarkedTest() {
+    InstrumentedScript script = StatementInstrumenter.instrument("function f() {\n return 1;\n}\nf();");
+    assertEquals(1, script.getStatements().size());
+    assertEquals(4, script.getStatements().get(0).getLine());
+  }
+
+  @Test
+  public void syntaxErrorNotInstrumentedTest() {
+    InstrumentedScript script = StatementInstrumenter.instrument("db.test.find({");
+    assertEquals("db.test.find({", script.getScript());
+    assertEquals(1, script.getStatements().size());
+  }
+}
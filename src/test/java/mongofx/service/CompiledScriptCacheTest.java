@@ -0,0 +1,93 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+
+import org.junit.Test;
+
+public class CompiledScriptCacheTest {
+
+  @Test
+  public void testSameScriptCompiledOnce() throws Exception {
+    CountingCompiler compiler = new CountingCompiler();
+    CompiledScriptCache cache = new CompiledScriptCache(compiler, 2);
+
+    CompiledScript first = cache.compile("db.test.find({})");
+    CompiledScript second = cache.compile("db.test.find({})\r\n  ");
+
+    assertSame(first, second);
+    assertEquals(1, compiler.count);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEvicted() throws Exception {
+    CompiledScriptCache cache = new CompiledScriptCache(new CountingCompiler(), 2);
+
+    cache.compile("a");
+    cache.compile("b");
+    cache.compile("a");
+    cache.compile("c");
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.contains("a"));
+    assertFalse(cache.contains("b"));
+    assertTrue(cache.contains("c"));
+  }
+
+  @Test
+  public void testNormalizeKeepsLeadingLines() {
+    assertEquals("\n\nfoo()", CompiledScriptCache.normalize("\r\n\r\nfoo() \t\n"));
+  }
+
+  private static class CountingCompiler implements Compilable {
+    private int count;
+
+    @Override
+    public CompiledScript compile(String script) {
+      count++;
+      return new CompiledScript() {
+        @Override
+        public Object eval(ScriptContext context) {
+          return script;
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+          return null;
+        }
+      };
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,132 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ExecutorTest {
+  private final Executor executor = new Executor();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void stop() {
+    release.countDown();
+    executor.stop();
+  }
+
+  private Runnable blocking(CountDownLatch started) {
+    return () -> {
+      started.countDown();
+      try {
+        release.await();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  @Test
+  public void testTasksOverLimitAreQueued() throws InterruptedException {
+    int limit = WorkClass.INTERACTIVE.getLimit();
+    CountDownLatch started = new CountDownLatch(limit);
+    for (int i = 0; i < limit * 3; i++) {
+      executor.execute(WorkClass.INTERACTIVE, blocking(started));
+    }
+
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertEquals(limit, executor.getRunning(WorkClass.INTERACTIVE));
+    assertEquals(limit * 2, executor.getQueued(WorkClass.INTERACTIVE));
+  }
+
+  @Test
+  public void testSharedThreadLimit() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(Executor.SHARED_LIMIT);
+    for (int i = 0; i < WorkClass.JOB.getLimit(); i++) {
+      executor.execute(WorkClass.JOB, blocking(started));
+    }
+    for (int i = 0; i < Executor.SHARED_LIMIT; i++) {
+      executor.execute(WorkClass.METADATA, blocking(started));
+    }
+
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertEquals(WorkClass.METADATA.getLimit(), executor.getRunning(WorkClass.METADATA));
+    assertEquals(Executor.SHARED_LIMIT - WorkClass.METADATA.getLimit(), executor.getRunning(WorkClass.JOB));
+
+    // interactive work is not limited by shared threads
+    CountDownLatch interactive = new CountDownLatch(1);
+    executor.execute(WorkClass.INTERACTIVE, interactive::countDown);
+    assertTrue(interactive.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testOptionalTaskSkippedOnLongQueue() throws InterruptedException {
+    int limit = WorkClass.BACKGROUND.getLimit();
+    CountDownLatch started = new CountDownLatch(limit);
+    for (int i = 0; i < limit + WorkClass.BACKGROUND.getQueueLimit(); i++) {
+      assertTrue(executor.tryExecute(WorkClass.BACKGROUND, blocking(started)));
+    }
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertFalse(executor.tryExecute(WorkClass.BACKGROUND, () -> {}));
+    assertEquals(1, executor.getSkipped(WorkClass.BACKGROUND));
+  }
+
+  @Test
+  public void testTaskQueuedOverLimitAndClassSaturated() throws InterruptedException {
+    List<Boolean> saturation = new CopyOnWriteArrayList<>();
+    executor.addSaturationListener((workClass, saturated) -> {
+      if (workClass == WorkClass.JOB) {
+        saturation.add(saturated);
+      }
+    });
+    int limit = WorkClass.JOB.getLimit();
+    CountDownLatch started = new CountDownLatch(limit);
+    for (int i = 0; i < limit + WorkClass.JOB.getQueueLimit(); i++) {
+      executor.execute(WorkClass.JOB, blocking(started));
+    }
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertTrue(executor.isSaturated(WorkClass.JOB));
+
+    executor.execute(WorkClass.JOB, () -> {});
+    assertEquals(WorkClass.JOB.getQueueLimit() + 1, executor.getQueued(WorkClass.JOB));
+    WorkClassSummary summary = executor.getWorkClasses().get(WorkClass.JOB.ordinal());
+    assertTrue(summary.isSaturated());
+
+    // queue drains after blocking tasks are released
+    release.countDown();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (executor.isSaturated(WorkClass.JOB) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertFalse(executor.isSaturated(WorkClass.JOB));
+    assertEquals(Arrays.asList(true, false), saturation);
+  }
+}
@@ -0,0 +1,50 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void emptyHistogramTest() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentileMs(99), 0);
+  }
+
+  @Test
+  public void percentileWithinBucketTest() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(50.5, histogram.getAverageMs(), 0.001);
+    double p50 = histogram.getPercentileMs(50);
+    assertTrue(p50 >= 50 && p50 <= 100);
+    // not more than max value
+    assertEquals(100, histogram.getPercentileMs(99), 0.001);
+  }
+}
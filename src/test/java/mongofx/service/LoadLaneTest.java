@@ -0,0 +1,69 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LoadLaneTest {
+
+  @Test
+  public void testLatestLoadRunsFirst() throws InterruptedException {
+    LoadLane lane = new LoadLane("test", 1);
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch finished = new CountDownLatch(3);
+      List<String> order = new CopyOnWriteArrayList<>();
+
+      lane.execute(() -> {
+        started.countDown();
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      for (String name : Arrays.asList("first", "second", "third")) {
+        lane.execute(() -> {
+          order.add(name);
+          finished.countDown();
+        });
+      }
+      assertEquals(3, lane.getQueued());
+      release.countDown();
+
+      assertTrue(finished.await(5, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList("third", "second", "first"), order);
+    }
+    finally {
+      lane.shutdown();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+import com.mongodb.BasicDBObject;
+
+public class OperationContextTest {
+  private final OperationContext context = OperationContext.create(null);
+  private final String tag = context.getTag().get();
+
+  @Test
+  public void testFilterTaggedAsCopy() {
+    BasicDBObject filter = new BasicDBObject("a", 1);
+    BasicDBObject tagged = context.tag(filter);
+
+    assertEquals(new BasicDBObject("a", 1).append("$comment", tag), tagged);
+    assertFalse(filter.containsField("$comment"));
+  }
+
+  @Test
+  public void testOwnCommentKept() {
+    BasicDBObject filter = new BasicDBObject("$comment", "mine");
+    assertSame(filter, context.tag(filter));
+  }
+
+  @Test
+  public void testPipelineTagged() {
+    List<BasicDBObject> matchFirst = Arrays.asList(new BasicDBObject("$match", new BasicDBObject("a", 1)));
+    assertEquals(new BasicDBObject("a", 1).append("$comment", tag), context.tag(matchFirst).get(0).get("$match"));
+
+    List<BasicDBObject> groupFirst = Arrays.asList(new BasicDBObject("$group", new BasicDBObject("_id", "$a")));
+    List<BasicDBObject> tagged = context.tag(groupFirst);
+    assertEquals(new BasicDBObject("$match", new BasicDBObject("$comment", tag)), tagged.get(0));
+    assertEquals(2, tagged.size());
+
+    List<BasicDBObject> geoNear = Arrays.asList(new BasicDBObject("$geoNear", new BasicDBObject()));
+    assertSame(geoNear, context.tag(geoNear));
+  }
+
+  @Test
+  public void testDetachedContextDoesNotTag() {
+    OperationContext detached = OperationContext.current();
+    BasicDBObject filter = new BasicDBObject();
+    assertFalse(detached.getTag().isPresent());
+    assertSame(filter, detached.tag(filter));
+    assertEquals(Collections.emptyList(), detached.tag(Collections.<BasicDBObject>emptyList()));
+  }
+
+  @Test
+  public void testAttachedToThread() {
+    context.attach();
+    try {
+      assertSame(context, OperationContext.current());
+    }
+    finally {
+      context.detach();
+    }
+    assertFalse(OperationContext.current().getTag().isPresent());
+  }
+
+  @Test(expected = CancellationException.class)
+  public void testCancelStopsScript() {
+    context.checkCancelled();
+    context.cancel();
+    context.checkCancelled();
+  }
+}
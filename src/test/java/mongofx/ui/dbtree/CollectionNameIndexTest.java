@@ -0,0 +1,51 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.dbtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CollectionNameIndexTest {
+  private final CollectionNameIndex index =
+      new CollectionNameIndex(Arrays.asList("tenant_2", "Users", "tenant_10", "logs", "tenant_1", "userEvents"));
+
+  @Test
+  public void testAllNamesSorted() {
+    assertEquals(Arrays.asList("logs", "tenant_1", "tenant_10", "tenant_2", "userEvents", "Users"), index.find(""));
+    assertEquals(6, index.size());
+  }
+
+  @Test
+  public void testFindByPrefixIgnoringCase() {
+    assertEquals(Arrays.asList("tenant_1", "tenant_10"), index.find("tenant_1"));
+    assertEquals(Arrays.asList("userEvents", "Users"), index.find("USER"));
+    assertEquals(Arrays.asList("logs"), index.find("l"));
+  }
+
+  @Test
+  public void testNoMatches() {
+    assertTrue(index.find("z").isEmpty());
+    assertTrue(index.find("a").isEmpty());
+    assertTrue(index.find("tenant_3").isEmpty());
+  }
+}
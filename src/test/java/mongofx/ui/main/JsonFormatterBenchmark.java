@@ -0,0 +1,102 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.main;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Formatting of result page: previous Document.toJson path against {@link JsonFormatter}. Not run by tests, start
+ * with main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonFormatterBenchmark {
+
+  @Param({"50", "1000"})
+  private int pageSize;
+
+  private List<Document> page;
+  private JsonFormatter formatter;
+
+  @Setup
+  public void setup() {
+    page = new ArrayList<>();
+    for (int i = 0; i < pageSize; i++) {
+      List<Document> items = new ArrayList<>();
+      for (int j = 0; j < 20; j++) {
+        items.add(new Document("sku", "item-" + j).append("qty", j).append("price", j * 1.5));
+      }
+      page.add(new Document("_id", new ObjectId()).append("name", "document " + i).append("created", new Date())
+          .append("items", items));
+    }
+    formatter = new JsonFormatter();
+  }
+
+  @Benchmark
+  public List<String> documentToJson() {
+    return page.stream().map(d -> d.toJson(new JsonWriterSettings(JsonMode.SHELL, true)))
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<String> formatterUncached() {
+    return page.stream().map(formatter::formatUncached).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<String> formatterParallel() {
+    return new JsonFormatter().formatAll(page);
+  }
+
+  @Benchmark
+  public List<String> formatterCached() {
+    return formatter.formatAll(page);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JsonFormatterBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,69 @@
+// This file is part of MongoFX.
+//
+// MongoFX is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+//  (at your option) any later version.
+//
+// MongoFX is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with MongoFX.  If not, see <http://www.gnu.org/licenses/>.
+
+//
+// Copyright (c) Andrey Dubravin, 2016
+//
+package mongofx.ui.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+public class JsonFormatterTest {
+  private static final JsonWriterSettings SHELL = new JsonWriterSettings(JsonMode.SHELL, true);
+
+  @Test
+  public void testSameAsDocumentToJson() {
+    Document document = new Document("_id", new ObjectId()).append("date", new Date(0))
+        .append("list", Arrays.asList(1, "two", new Document("three", 3L)));
+
+    assertEquals(document.toJson(SHELL), new JsonFormatter().format(document));
+  }
+
+  @Test
+  public void testCachedByIdentity() {
+    JsonFormatter formatter = new JsonFormatter();
+    Document document = new Document("a", 1);
+
+    assertSame(formatter.format(document), formatter.format(document));
+    assertNotSame(formatter.format(document), formatter.format(new Document("a", 1)));
+  }
+
+  @Test
+  public void testFormatAllKeepsOrder() {
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      documents.add(new Document("i", i));
+    }
+
+    List<String> formatted = new JsonFormatter().formatAll(documents);
+
+    for (int i = 0; i < documents.size(); i++) {
+      assertEquals(documents.get(i).toJson(SHELL), formatted.get(i));
+    }
+  }
+}